@@ -0,0 +1,28 @@
+package benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/* Запуск всех замеров с сохранением результатов в JSON, чтобы сравнивать версии между собой.
+   Аргументы: файл результатов (по умолчанию benchmark-results.json) и, при необходимости,
+   регулярное выражение для выбора замеров и список размеров данных через запятую */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        String resultFile = args.length > 0 ? args[0] : "benchmark-results.json";
+        String include = args.length > 1 ? args[1] : "benchmark\\..*";
+
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile);
+        if (args.length > 2) {
+            builder.param("size", args[2].split(","));
+        }
+
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,92 @@
+package benchmark;
+
+import manager.FileBackedTaskManager;
+import manager.SnapshotFormat;
+import manager.StorageConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import task.Epic;
+import task.SubTask;
+import task.Task;
+import tools.Status;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/* Сохранение и загрузка файла с size задачами (каждая десятая - эпик с подзадачами) в обоих форматах.
+   Сохранение - полная перезапись основного файла после изменения одной задачи */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FileBackedTaskManagerBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    @Param({"CSV", "BINARY"})
+    private SnapshotFormat format;
+
+    private File file;
+    private StorageConfig config;
+    private FileBackedTaskManager manager;
+    private Task task;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = File.createTempFile("kanban-benchmark", ".csv");
+        config = StorageConfig.snapshot().withManualFlush().withFormat(format);
+        manager = new FileBackedTaskManager(file, config);
+
+        Epic epic = null;
+        for (int i = 0; i < size; i++) {
+            if (i % 10 == 0) {
+                epic = new Epic("Эпик " + i, "Описание", Status.NEW);
+                manager.addEpic(epic);
+            } else if (i % 2 == 0) {
+                manager.addSubTask(new SubTask("Подзадача " + i, "Описание", Status.NEW, epic.getId(),
+                        Duration.ofMinutes(30), START.plusHours(i)));
+            } else {
+                task = new Task("Задача " + i, "Описание", Status.NEW, Duration.ofMinutes(30), START.plusHours(i));
+                manager.addTask(task);
+            }
+        }
+        manager.flush();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        manager.close();
+        Files.deleteIfExists(file.toPath());
+    }
+
+    @Benchmark
+    public FileBackedTaskManager save() {
+        task.setStatus(task.getStatus() == Status.NEW ? Status.IN_PROGRESS : Status.NEW);
+        manager.updateTask(task);
+        manager.flush();
+        return manager;
+    }
+
+    @Benchmark
+    public FileBackedTaskManager loadFromFile() {
+        return FileBackedTaskManager.loadFromFile(file); // Формат определяется по файлу, фоновой записи нет
+    }
+}
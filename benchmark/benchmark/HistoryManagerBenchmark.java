@@ -0,0 +1,65 @@
+package benchmark;
+
+import manager.HistoryManager;
+import manager.InMemoryHistoryManager;
+import manager.Managers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import task.Task;
+import tools.Status;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/* История просмотров, заполненная size задачами. Просмотр выбирает случайную задачу, поэтому каждый
+   замер перемещает существующий узел в конец истории. Однопоточная реализация сравнивается с потокобезопасной;
+   конкуренцию потокобезопасной истории можно замерить, запустив замер add с несколькими потоками (-t) */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HistoryManagerBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    @Param({"inMemory", "concurrent"})
+    private String implementation;
+
+    private HistoryManager history;
+    private Task[] tasks;
+
+    @Setup
+    public void setUp() {
+        history = implementation.equals("concurrent")
+                ? Managers.getConcurrentHistory(size)
+                : new InMemoryHistoryManager(size);
+        tasks = new Task[size];
+        for (int i = 0; i < size; i++) {
+            tasks[i] = new Task(i + 1, "Задача " + i, "Описание", Status.NEW);
+            history.add(tasks[i]);
+        }
+        history.getHistory(); // Переносит буферы потокобезопасной истории до начала замеров
+    }
+
+    @Benchmark
+    public void add() {
+        history.add(tasks[ThreadLocalRandom.current().nextInt(size)]);
+    }
+
+    @Benchmark
+    public List<Task> getHistory() {
+        return history.getHistory();
+    }
+}
@@ -0,0 +1,64 @@
+package benchmark;
+
+import manager.InMemoryTaskManager;
+import manager.InstrumentedTaskManager;
+import manager.TaskManager;
+import metrics.Histogram;
+import metrics.MetricsRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.Status;
+import tools.TaskType;
+
+import java.util.concurrent.TimeUnit;
+
+/* Стоимость записи метрик: запись в гистограмму, полный замер с двумя вызовами System.nanoTime()
+   и та же дешёвая операция менеджера напрямую и через замеряющую обёртку. Конкуренцию за корзины
+   можно замерить, запустив замеры с несколькими потоками (-t) */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsBenchmark {
+    private Histogram histogram;
+    private TaskManager plain;
+    private TaskManager instrumented;
+    private long value;
+
+    @Setup
+    public void setUp() {
+        histogram = new Histogram();
+        plain = new InMemoryTaskManager();
+        instrumented = new InstrumentedTaskManager(plain, new MetricsRegistry());
+    }
+
+    @Benchmark
+    public void record() {
+        histogram.record(value++ & 0xFFFFF);
+    }
+
+    @Benchmark
+    public void recordSince() {
+        histogram.recordSince(System.nanoTime());
+    }
+
+    @Benchmark
+    public int countByStatus() {
+        return plain.countByStatus(TaskType.TASK, Status.NEW);
+    }
+
+    @Benchmark
+    public int countByStatusInstrumented() {
+        return instrumented.countByStatus(TaskType.TASK, Status.NEW);
+    }
+}
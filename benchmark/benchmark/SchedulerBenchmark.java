@@ -0,0 +1,57 @@
+package benchmark;
+
+import manager.InMemoryTaskManager;
+import manager.ScheduleResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import task.Task;
+import tools.Status;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/* Автоматическое планирование: size задач по 30 минут в начале каждого часа и size задач без времени
+   длительностью 20-40 минут, которые раскладываются по получасовым промежуткам. Замер - пробный запуск,
+   поэтому менеджер между итерациями не меняется */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchedulerBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    private InMemoryTaskManager manager;
+
+    @Setup
+    public void setUp() {
+        manager = new InMemoryTaskManager();
+        for (int i = 0; i < size; i++) {
+            manager.addTask(new Task("Задача " + i, "Описание", Status.NEW,
+                    Duration.ofMinutes(30), START.plusHours(i)));
+        }
+        for (int i = 0; i < size; i++) {
+            manager.addTask(new Task("Без времени " + i, "Описание", Status.NEW,
+                    Duration.ofMinutes(20 + (i % 3) * 10), null));
+        }
+    }
+
+    @Benchmark
+    public ScheduleResult scheduleDryRun() {
+        return manager.scheduleTasks(null, START, null, true);
+    }
+}
@@ -0,0 +1,96 @@
+package benchmark;
+
+import manager.InMemoryTaskManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import task.Epic;
+import task.SubTask;
+import task.Task;
+import tools.Status;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/* Горячие пути InMemoryTaskManager на заполненном менеджере: size задач без пересечений по времени
+   и эпик с size подзадачами. Добавляющие замеры сразу удаляют добавленное, чтобы размер данных не менялся */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskManagerBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    private InMemoryTaskManager manager;
+    private Epic epic;
+    private SubTask subTask;
+    private LocalDateTime freeSlot;
+
+    @Setup
+    public void setUp() {
+        manager = new InMemoryTaskManager();
+        for (int i = 0; i < size; i++) {
+            manager.addTask(new Task("Задача " + i, "Описание", Status.NEW,
+                    Duration.ofMinutes(30), START.plusHours(i)));
+        }
+
+        epic = new Epic("Эпик", "Описание", Status.NEW);
+        manager.addEpic(epic);
+        LocalDateTime subTaskStart = START.plusHours(size);
+        for (int i = 0; i < size; i++) {
+            subTask = new SubTask("Подзадача " + i, "Описание", Status.NEW, epic.getId(),
+                    Duration.ofMinutes(30), subTaskStart.plusHours(i));
+            manager.addSubTask(subTask);
+        }
+        freeSlot = START.plusHours(2L * size + 1);
+    }
+
+    @Benchmark // Добавление с проверкой пересечений: новая задача попадает в конец расписания
+    public int addTask() {
+        Task task = new Task("Новая задача", "Описание", Status.NEW, Duration.ofMinutes(30), freeSlot);
+        manager.addTask(task);
+        manager.deleteTaskById(task.getId());
+        return task.getId();
+    }
+
+    @Benchmark // Добавление в эпик с проверкой пересечений и пересчётом статуса и времени эпика
+    public int addSubTask() {
+        SubTask added = new SubTask("Новая подзадача", "Описание", Status.NEW, epic.getId(),
+                Duration.ofMinutes(30), freeSlot);
+        manager.addSubTask(added);
+        manager.deleteSubTaskById(added.getId());
+        return added.getId();
+    }
+
+    @Benchmark // Переключение статуса одной подзадачи эпика с size подзадачами
+    public Status updateSubTask() {
+        subTask.setStatus(subTask.getStatus() == Status.NEW ? Status.DONE : Status.NEW);
+        manager.updateSubTask(subTask);
+        return epic.getStatus();
+    }
+
+    @Benchmark // Между изменениями отдаётся готовый снимок
+    public List<Task> getPrioritizedTasks() {
+        return manager.getPrioritizedTasks();
+    }
+
+    @Benchmark
+    public List<Task> getAllTasks() {
+        return manager.getAllTasks();
+    }
+}
@@ -0,0 +1,141 @@
+package collection;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/* Множество int без упаковки, обходится в порядке добавления.
+   Реализует Set<Integer>, поэтому подходит для Gson и обычных коллекций, но основные операции
+   принимают int и не создают объектов */
+public class IntHashSet extends AbstractSet<Integer> {
+    private final Store store;
+
+    public IntHashSet() {
+        this(0);
+    }
+
+    public IntHashSet(int expectedSize) {
+        store = new Store(expectedSize);
+    }
+
+    public IntHashSet(IntHashSet other) {
+        this(other.size());
+        other.forEachInt(store::append); // Значения other различны, проверка на повтор не нужна
+    }
+
+    public boolean add(int value) {
+        if (store.indexOf(value) >= 0) {
+            return false;
+        }
+        store.append(value);
+        return true;
+    }
+
+    public boolean contains(int value) {
+        return store.indexOf(value) >= 0;
+    }
+
+    public boolean remove(int value) {
+        return store.removeKey(value) >= 0;
+    }
+
+    public void forEachInt(IntConsumer action) {
+        for (int index = 0; index < store.entries; index++) {
+            if (store.isLive(index)) {
+                action.accept(store.keys[index]);
+            }
+        }
+    }
+
+    // Обход с досрочной остановкой: false от action прекращает обход, тогда и результат false
+    public boolean forEachIntWhile(IntPredicate action) {
+        for (int index = 0; index < store.entries; index++) {
+            if (store.isLive(index) && !action.test(store.keys[index])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int[] toIntArray() {
+        int[] result = new int[store.size()];
+        int[] position = {0};
+        forEachInt(value -> result[position[0]++] = value);
+        return result;
+    }
+
+    @Override
+    public boolean add(Integer value) {
+        return add(value.intValue());
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return value instanceof Integer number && contains(number.intValue());
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        return value instanceof Integer number && remove(number.intValue());
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<>() {
+            private int next = advance(0);
+
+            @Override
+            public boolean hasNext() {
+                return next < store.entries;
+            }
+
+            @Override
+            public Integer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int value = store.keys[next];
+                next = advance(next + 1);
+                return value;
+            }
+
+            private int advance(int index) {
+                while (index < store.entries && !store.isLive(index)) {
+                    index++;
+                }
+                return index;
+            }
+        };
+    }
+
+    private static class Store extends IntHashStore {
+        Store(int expectedSize) {
+            super(expectedSize);
+        }
+
+        @Override
+        protected void resizeEntries(int capacity) {
+        }
+
+        @Override
+        protected void moveEntry(int from, int to) {
+        }
+
+        @Override
+        protected void clearEntries(int from, int to) {
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package collection;
+
+import java.util.Arrays;
+
+/* Основа хеш-структур с ключами int без упаковки в Integer.
+   Ключи лежат плотным массивом в порядке вставки, а таблица открытой адресации с линейным пробированием
+   хранит для хеша ключа его позицию в этом массиве. Удаление помечает позицию удалённой и оставляет в таблице
+   метку, чтобы не разорвать цепочки пробирования; метки и дыры убираются при перестроении, которое происходит,
+   когда плотный массив заполнен. Поиск, вставка и удаление - O(1) в среднем, обход идёт в порядке вставки */
+abstract class IntHashStore {
+    private static final int FREE = 0; // В таблице хранится позиция ключа + 1
+    private static final int TOMBSTONE = -1;
+    private static final int MIN_CAPACITY = 8;
+
+    protected int[] keys;
+    protected int entries; // Число занятых позиций плотного массива, включая удалённые
+    private boolean[] removed;
+    private int[] table;
+    private int size;
+    private boolean ascending = true; // Ключи добавлялись по возрастанию, плотный массив отсортирован
+
+    IntHashStore(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        table = new int[capacity];
+        keys = new int[capacity / 2];
+        removed = new boolean[capacity / 2];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(table, FREE);
+        Arrays.fill(removed, 0, entries, false);
+        clearEntries(0, entries);
+        entries = 0;
+        size = 0;
+        ascending = true;
+    }
+
+    protected final int indexOf(int key) { // Позиция ключа в плотном массиве или -1
+        int slot = slotOf(key);
+        return slot < 0 ? -1 : table[slot] - 1;
+    }
+
+    protected final int append(int key) { // Добавляет отсутствующий ключ и возвращает его позицию
+        if (entries == keys.length) {
+            rehash();
+        }
+        int mask = table.length - 1;
+        int slot = mix(key) & mask;
+        while (table[slot] > 0) {
+            slot = (slot + 1) & mask;
+        }
+        if (entries > 0 && key < keys[entries - 1]) {
+            ascending = false;
+        }
+        int index = entries++;
+        keys[index] = key;
+        table[slot] = index + 1;
+        size++;
+        return index;
+    }
+
+    protected final int removeKey(int key) { // Удаляет ключ и возвращает его бывшую позицию или -1
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return -1;
+        }
+        int index = table[slot] - 1;
+        table[slot] = TOMBSTONE;
+        removed[index] = true;
+        size--;
+        return index;
+    }
+
+    protected final boolean isAscending() {
+        return ascending;
+    }
+
+    protected final int firstIndexAfter(int key) { // Двоичный поиск первой позиции с ключом больше key
+        int low = 0;
+        int high = entries;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] <= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    protected final boolean isLive(int index) {
+        return !removed[index];
+    }
+
+    protected abstract void resizeEntries(int capacity);
+
+    protected abstract void moveEntry(int from, int to);
+
+    protected abstract void clearEntries(int from, int to);
+
+    private int slotOf(int key) {
+        int mask = table.length - 1;
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            int value = table[slot];
+            if (value == FREE) {
+                return -1;
+            }
+            if (value > 0 && keys[value - 1] == key) {
+                return slot;
+            }
+        }
+    }
+
+    // Уплотняет массив ключей, а если живых ключей больше половины - ещё и удваивает ёмкость
+    private void rehash() {
+        int live = 0;
+        for (int index = 0; index < entries; index++) {
+            if (!removed[index]) {
+                if (live != index) {
+                    keys[live] = keys[index];
+                    moveEntry(index, live);
+                }
+                live++;
+            }
+        }
+        clearEntries(live, entries);
+        entries = live;
+
+        int capacity = live * 2 >= keys.length ? table.length * 2 : table.length;
+        table = new int[capacity];
+        keys = Arrays.copyOf(keys, capacity / 2);
+        removed = new boolean[capacity / 2];
+        resizeEntries(capacity / 2);
+
+        int mask = capacity - 1;
+        for (int index = 0; index < entries; index++) {
+            int slot = mix(keys[index]) & mask;
+            while (table[slot] != FREE) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = index + 1;
+        }
+    }
+
+    private static int mix(int key) { // Перемешивание, чтобы подряд идущие id не собирались в кластеры
+        int hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
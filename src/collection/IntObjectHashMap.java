@@ -0,0 +1,142 @@
+package collection;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Отображение int -> V без упаковки ключей; значения обходятся в порядке вставки ключей
+public class IntObjectHashMap<V> extends IntHashStore {
+    private Object[] values;
+
+    public IntObjectHashMap() {
+        this(0);
+    }
+
+    public IntObjectHashMap(int expectedSize) {
+        super(expectedSize);
+        values = new Object[keys.length];
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int index = indexOf(key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) { // Значение существующего ключа заменяется без изменения порядка обхода
+        int index = indexOf(key);
+        if (index >= 0) {
+            V previous = (V) values[index];
+            values[index] = value;
+            return previous;
+        }
+        index = append(key); // append может пересоздать массив значений, поэтому запись идёт после него
+        values[index] = value;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int index = removeKey(key);
+        if (index < 0) {
+            return null;
+        }
+        V previous = (V) values[index];
+        values[index] = null;
+        return previous;
+    }
+
+    /* Значения с ключами больше key в порядке возрастания ключей, не больше limit штук.
+       Пока ключи добавлялись по возрастанию (так менеджер выдаёт id), плотный массив отсортирован
+       и страница находится двоичным поиском за O(log n + limit); иначе ключи отбираются и сортируются */
+    @SuppressWarnings("unchecked")
+    public List<V> valuesAfter(int key, int limit) {
+        List<V> result = new ArrayList<>(Math.min(limit, size()));
+        if (isAscending()) {
+            for (int index = firstIndexAfter(key); index < entries && result.size() < limit; index++) {
+                if (isLive(index)) {
+                    result.add((V) values[index]);
+                }
+            }
+            return result;
+        }
+
+        int[] greater = new int[size()];
+        int count = 0;
+        for (int index = 0; index < entries; index++) {
+            if (isLive(index) && keys[index] > key) {
+                greater[count++] = keys[index];
+            }
+        }
+        Arrays.sort(greater, 0, count);
+        for (int i = 0; i < Math.min(count, limit); i++) {
+            result.add(get(greater[i]));
+        }
+        return result;
+    }
+
+    public Collection<V> values() { // Представление значений без копирования
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator();
+            }
+
+            @Override
+            public int size() {
+                return IntObjectHashMap.this.size();
+            }
+        };
+    }
+
+    @Override
+    protected void resizeEntries(int capacity) {
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    protected void moveEntry(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    protected void clearEntries(int from, int to) {
+        Arrays.fill(values, from, to, null);
+    }
+
+    private class ValueIterator implements Iterator<V> {
+        private int next = advance(0);
+
+        @Override
+        public boolean hasNext() {
+            return next < entries;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            V value = (V) values[next];
+            next = advance(next + 1);
+            return value;
+        }
+
+        private int advance(int index) {
+            while (index < entries && !isLive(index)) {
+                index++;
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package manager;
+
+import task.Task;
+import tools.BatchError;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/* Итог пакетной операции по каждому элементу пакета: применённая задача или причина отказа.
+   Отклонённые элементы не мешают применению остальных */
+public class BatchResult {
+    private final Task[] applied;
+    private final String[] errors;
+    private final BatchError[] errorTypes;
+    private int errorCount;
+
+    BatchResult(int size) {
+        this.applied = new Task[size];
+        this.errors = new String[size];
+        this.errorTypes = new BatchError[size];
+    }
+
+    void applied(int index, Task task) {
+        applied[index] = task;
+    }
+
+    void rejected(int index, BatchError type, String reason) {
+        if (errors[index] == null) {
+            errorCount++;
+        }
+        errors[index] = reason;
+        errorTypes[index] = type;
+    }
+
+    public int size() {
+        return applied.length;
+    }
+
+    public boolean isApplied(int index) {
+        return errors[index] == null;
+    }
+
+    public Task getTask(int index) { // Применённая задача (для добавления - уже с id) или null
+        return applied[index];
+    }
+
+    public String getError(int index) {
+        return errors[index];
+    }
+
+    public BatchError getErrorType(int index) {
+        return errorTypes[index];
+    }
+
+    public List<Task> getApplied() { // Применённые задачи в порядке пакета
+        List<Task> result = new ArrayList<>(applied.length - errorCount);
+        for (int i = 0; i < applied.length; i++) {
+            if (errors[i] == null && applied[i] != null) {
+                result.add(applied[i]);
+            }
+        }
+        return result;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    public boolean isSuccessful() {
+        return errorCount == 0;
+    }
+}
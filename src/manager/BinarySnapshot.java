@@ -0,0 +1,191 @@
+package manager;
+
+import task.Epic;
+import task.SubTask;
+import task.Task;
+import tools.Status;
+import tools.TaskType;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/* Двоичный формат снимка:
+   заголовок - сигнатура KANB (4 байта) и версия (2 байта);
+   таблица строк - количество и строки в UTF-8 с длиной перед каждой;
+   записи - количество и для каждой записи: тип, id, индексы имени, описания и статуса в таблице строк,
+   флаги наличия продолжительности и времени начала, сами эти значения и id эпика у подзадачи.
+   Целые числа записываются в формате переменной длины, поэтому небольшие id и индексы занимают 1-2 байта */
+class BinarySnapshot {
+    private static final int MAGIC = 0x4B414E42;
+    private static final short VERSION = 1;
+    private static final int HAS_DURATION = 1;
+    private static final int HAS_START_TIME = 2;
+
+    private BinarySnapshot() {
+    }
+
+    static boolean isBinary(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            return in.readInt() == MAGIC;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    static byte[] write(List<? extends Task> tasks) throws IOException {
+        Map<String, Integer> indexes = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        DataOutputStream recordsOut = new DataOutputStream(records);
+
+        writeVarLong(recordsOut, tasks.size());
+        for (Task task : tasks) {
+            recordsOut.writeByte(task.getType().ordinal());
+            writeVarLong(recordsOut, task.getId());
+            writeVarLong(recordsOut, indexOf(task.getName(), indexes, strings));
+            writeVarLong(recordsOut, indexOf(task.getDescription(), indexes, strings));
+            writeVarLong(recordsOut, indexOf(task.getStatus().name(), indexes, strings));
+
+            Duration duration = task.getDuration();
+            LocalDateTime startTime = task.getStartTime();
+            recordsOut.writeByte((duration != null ? HAS_DURATION : 0) | (startTime != null ? HAS_START_TIME : 0));
+            if (duration != null) {
+                writeVarLong(recordsOut, duration.toMinutes());
+            }
+            if (startTime != null) {
+                writeVarLong(recordsOut, startTime.toEpochSecond(ZoneOffset.UTC));
+                writeVarLong(recordsOut, startTime.getNano());
+            }
+            if (task instanceof SubTask subTask) {
+                writeVarLong(recordsOut, subTask.getEpicId());
+            }
+        }
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream(records.size() + strings.size() * 16 + 16);
+        DataOutputStream out = new DataOutputStream(result);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        writeVarLong(out, strings.size());
+        for (String value : strings) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(out, bytes.length);
+            out.write(bytes);
+        }
+        records.writeTo(out);
+        out.flush();
+        return result.toByteArray();
+    }
+
+    // Читает снимок и передаёт задачи получателю; возвращает число прочитанных записей
+    static long read(Path path, Consumer<Task> consumer) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new ManagerSaveException("Файл не является двоичным снимком задач");
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new ManagerSaveException("Неподдерживаемая версия двоичного снимка: " + version);
+            }
+
+            String[] strings = new String[readVarInt(in)];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[readVarInt(in)];
+                in.readFully(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            TaskType[] types = TaskType.values();
+            long count = readVarLong(in);
+            for (long i = 0; i < count; i++) {
+                TaskType type = types[in.readUnsignedByte()];
+                int id = readVarInt(in);
+                String name = readString(in, strings);
+                String description = readString(in, strings);
+                Status status = Status.valueOf(readString(in, strings));
+
+                int flags = in.readUnsignedByte();
+                Duration duration = (flags & HAS_DURATION) != 0 ? Duration.ofMinutes(readVarLong(in)) : null;
+                LocalDateTime startTime = (flags & HAS_START_TIME) != 0
+                        ? LocalDateTime.ofEpochSecond(readVarLong(in), readVarInt(in), ZoneOffset.UTC) : null;
+
+                Task task;
+                switch (type) {
+                    case EPIC:
+                        task = new Epic(name, description, status, duration, startTime);
+                        break;
+                    case SUBTASK:
+                        task = new SubTask(name, description, status, readVarInt(in), duration, startTime);
+                        break;
+                    default:
+                        task = new Task(name, description, status, duration, startTime);
+                }
+                task.setId(id);
+                consumer.accept(task);
+            }
+            return count;
+        }
+    }
+
+    // Индекс строки в таблице, начиная с 1; 0 означает null
+    private static int indexOf(String value, Map<String, Integer> indexes, List<String> strings) {
+        if (value == null) {
+            return 0;
+        }
+        Integer index = indexes.get(value);
+        if (index == null) {
+            strings.add(value);
+            index = strings.size();
+            indexes.put(value, index);
+        }
+        return index;
+    }
+
+    private static String readString(InputStream in, String[] strings) throws IOException {
+        int index = readVarInt(in);
+        return index == 0 ? null : strings[index - 1];
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long zigZag = (value << 1) ^ (value >> 63); // Отрицательные числа тоже занимают мало байт
+        while ((zigZag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigZag & 0x7F) | 0x80));
+            zigZag >>>= 7;
+        }
+        out.writeByte((int) zigZag);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long zigZag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Неожиданный конец двоичного снимка");
+            }
+            zigZag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigZag >>> 1) ^ -(zigZag & 1);
+            }
+        }
+        throw new IOException("Повреждённое число в двоичном снимке");
+    }
+
+    private static int readVarInt(InputStream in) throws IOException {
+        return Math.toIntExact(readVarLong(in));
+    }
+}
@@ -0,0 +1,127 @@
+package manager;
+
+import task.Task;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/* Потокобезопасная история просмотров ограниченного размера.
+   Просмотр не берёт блокировку: задача кладётся в буфер своей полосы (полоса выбирается по потоку),
+   а буферы в фоне переносятся в упорядоченную историю. Удаление и чтение истории сначала переносят буферы,
+   поэтому видят все просмотры, сделанные до них. Порядок просмотров из разных потоков, попавших
+   в один перенос, приблизителен, порядок просмотров одного потока сохраняется */
+public class ConcurrentHistoryManager implements HistoryManager {
+    private static final int DRAIN_THRESHOLD = 32;
+
+    private final InMemoryHistoryManager history;
+    private final Stripe[] stripes;
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final Executor drainExecutor;
+
+    public ConcurrentHistoryManager(int maxSize) {
+        this(maxSize, ForkJoinPool.commonPool());
+    }
+
+    ConcurrentHistoryManager(int maxSize, Executor drainExecutor) {
+        this.history = new InMemoryHistoryManager(maxSize);
+        this.drainExecutor = drainExecutor;
+
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2);
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public void add(Task task) {
+        Stripe stripe = stripes[stripeIndex()];
+        stripe.buffer.add(task);
+        if (stripe.size.incrementAndGet() >= DRAIN_THRESHOLD && drainScheduled.compareAndSet(false, true)) {
+            drainExecutor.execute(this::drainInBackground);
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            history.remove(id);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            return history.getHistory();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            return history.getHistory(offset, limit);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public int size() { // Повторные просмотры в буферах не меняют размер, поэтому их нужно сначала перенести
+        drainLock.lock();
+        try {
+            drainBuffers();
+            return history.size();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private void drainInBackground() {
+        drainScheduled.set(false);
+        if (drainLock.tryLock()) { // Если буферы уже переносит другой поток, он заберёт и эти просмотры
+            try {
+                drainBuffers();
+            } finally {
+                drainLock.unlock();
+            }
+        }
+    }
+
+    private void drainBuffers() {
+        for (Stripe stripe : stripes) {
+            Task task;
+            while ((task = stripe.buffer.poll()) != null) {
+                stripe.size.decrementAndGet();
+                history.add(task);
+            }
+        }
+    }
+
+    private int stripeIndex() {
+        long id = Thread.currentThread().threadId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+
+    private static class Stripe {
+        final Queue<Task> buffer = new ConcurrentLinkedQueue<>();
+        final AtomicInteger size = new AtomicInteger();
+    }
+}
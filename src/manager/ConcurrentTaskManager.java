@@ -0,0 +1,275 @@
+package manager;
+
+import task.Epic;
+import task.SubTask;
+import task.Task;
+import tools.CollectionType;
+import tools.Status;
+import tools.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/* Потокобезопасная обёртка над менеджером задач для многопоточного HTTP-сервера.
+   Чтения выполняются параллельно под блокировкой чтения, изменения - под блокировкой записи,
+   поэтому выдача id и составные операции (проверка пересечения и вставка в addTask) атомарны.
+   Получение по id тоже идёт под блокировкой чтения, поэтому менеджер истории делегата должен быть
+   потокобезопасным (ConcurrentHistoryManager, см. Managers.getConcurrent) */
+public class ConcurrentTaskManager implements TaskManager {
+    private final TaskManager delegate;
+    private final Lock readLock;
+    private final Lock writeLock;
+
+    public ConcurrentTaskManager(TaskManager delegate) {
+        ReadWriteLock lock = new ReentrantReadWriteLock();
+        this.delegate = delegate;
+        this.readLock = lock.readLock();
+        this.writeLock = lock.writeLock();
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return read(delegate::getAllTasks);
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return read(delegate::getAllEpics);
+    }
+
+    @Override
+    public List<SubTask> getAllSubTasks() {
+        return read(delegate::getAllSubTasks);
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        write(delegate::deleteAllTasks);
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        write(delegate::deleteAllEpics);
+    }
+
+    @Override
+    public void deleteAllSubTasks() {
+        write(delegate::deleteAllSubTasks);
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return read(() -> delegate.getTaskById(id));
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        return read(() -> delegate.getEpicById(id));
+    }
+
+    @Override
+    public SubTask getSubTaskById(int id) {
+        return read(() -> delegate.getSubTaskById(id));
+    }
+
+    @Override
+    public void addTask(Task task) {
+        write(() -> delegate.addTask(task));
+    }
+
+    @Override
+    public void addEpic(Epic epic) {
+        write(() -> delegate.addEpic(epic));
+    }
+
+    @Override
+    public void addSubTask(SubTask subtask) {
+        write(() -> delegate.addSubTask(subtask));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        write(() -> delegate.updateTask(task));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        write(() -> delegate.updateEpic(epic));
+    }
+
+    @Override
+    public void updateSubTask(SubTask subtask) {
+        write(() -> delegate.updateSubTask(subtask));
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        write(() -> delegate.deleteTaskById(id));
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        write(() -> delegate.deleteEpicById(id));
+    }
+
+    @Override
+    public void deleteSubTaskById(int id) {
+        write(() -> delegate.deleteSubTaskById(id));
+    }
+
+    @Override
+    public List<SubTask> getSubTasksByEpicId(int epicId) {
+        return read(() -> delegate.getSubTasksByEpicId(epicId));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return read(delegate::getHistory);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return read(delegate::getPrioritizedTasks);
+    }
+
+    @Override
+    public boolean isTaskOverlapping(Task task) {
+        return read(() -> delegate.isTaskOverlapping(task));
+    }
+
+    @Override
+    public List<Task> getOverlappingTasks(Task task) {
+        return read(() -> delegate.getOverlappingTasks(task));
+    }
+
+    @Override
+    public List<Task> getTasks(int afterId, int limit) {
+        return read(() -> delegate.getTasks(afterId, limit));
+    }
+
+    @Override
+    public List<Epic> getEpics(int afterId, int limit) {
+        return read(() -> delegate.getEpics(afterId, limit));
+    }
+
+    @Override
+    public List<SubTask> getSubTasks(int afterId, int limit) {
+        return read(() -> delegate.getSubTasks(afterId, limit));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime afterStart, int afterId, int limit) {
+        return read(() -> delegate.getPrioritizedTasks(afterStart, afterId, limit));
+    }
+
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        return read(() -> delegate.getHistory(offset, limit));
+    }
+
+    @Override
+    public int getHistorySize() {
+        return read(delegate::getHistorySize);
+    }
+
+    @Override
+    public List<Task> getTasksInRange(LocalDateTime from, LocalDateTime to) {
+        return read(() -> delegate.getTasksInRange(from, to));
+    }
+
+    @Override
+    public List<Task> getByStatus(TaskType type, Status status) {
+        return read(() -> delegate.getByStatus(type, status));
+    }
+
+    @Override
+    public int countByStatus(TaskType type, Status status) {
+        return read(() -> delegate.countByStatus(type, status));
+    }
+
+    @Override
+    public int countByType(TaskType type) {
+        return read(() -> delegate.countByType(type));
+    }
+
+    @Override
+    public List<Task> search(String query, Set<TaskType> types, int limit) {
+        return read(() -> delegate.search(query, types, limit));
+    }
+
+    @Override
+    public List<FreeSlot> findFreeSlots(Duration duration, LocalDateTime after, int count) {
+        return read(() -> delegate.findFreeSlots(duration, after, count));
+    }
+
+    @Override
+    public ScheduleResult scheduleTasks(List<Integer> ids, LocalDateTime from, LocalDateTime to, boolean dryRun) {
+        if (dryRun) { // Пробный запуск ничего не меняет
+            return read(() -> delegate.scheduleTasks(ids, from, to, true));
+        }
+        return write(() -> delegate.scheduleTasks(ids, from, to, false));
+    }
+
+    @Override
+    public BatchResult addTasks(List<Task> tasks) {
+        return write(() -> delegate.addTasks(tasks));
+    }
+
+    @Override
+    public BatchResult addSubTasks(List<SubTask> subtasks) {
+        return write(() -> delegate.addSubTasks(subtasks));
+    }
+
+    @Override
+    public BatchResult updateSubTasks(List<SubTask> subtasks) {
+        return write(() -> delegate.updateSubTasks(subtasks));
+    }
+
+    @Override
+    public BatchResult deleteByIds(List<Integer> ids) {
+        return write(() -> delegate.deleteByIds(ids));
+    }
+
+    @Override
+    public long getVersion(CollectionType collection) { // Версии атомарные, блокировка не нужна
+        return delegate.getVersion(collection);
+    }
+
+    @Override
+    public void addChangeListener(TaskChangeListener listener) { // Слушатели вызываются под блокировкой записи
+        write(() -> delegate.addChangeListener(listener));
+    }
+
+    private <T> T read(Supplier<T> action) {
+        readLock.lock();
+        try {
+            return action.get();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private <T> T write(Supplier<T> action) {
+        writeLock.lock();
+        try {
+            return action.get();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void write(Runnable action) {
+        writeLock.lock();
+        try {
+            action.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package manager;
+
+import java.time.LocalDateTime;
+
+/* Разбирает строку CSV по запятым без регулярных выражений и промежуточного массива:
+   числа и значения перечислений читаются прямо из строки, подстроки создаются только для текстовых полей.
+   Текстовые поля журнала экранируются (escape), поэтому запятые и переводы строк в названии не ломают запись */
+class CsvLineTokenizer {
+    private String line;
+    private int position;
+    private int end;
+
+    void reset(String line) {
+        this.line = line;
+        this.position = 0;
+        findEnd();
+    }
+
+    boolean hasNext() {
+        return position <= line.length();
+    }
+
+    int remainingFields() {
+        if (!hasNext()) {
+            return 0;
+        }
+        int count = 1;
+        for (int index = line.indexOf(',', position); index >= 0; index = line.indexOf(',', index + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    String next() {
+        String value = line.substring(position, end);
+        advance();
+        return value;
+    }
+
+    String nextEscaped() { // Текстовое поле, записанное через escape
+        String value = next();
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder text = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                text.append(c);
+                continue;
+            }
+            char escaped = value.charAt(++i);
+            switch (escaped) {
+                case 'c' -> text.append(',');
+                case 'n' -> text.append('\n');
+                case 'r' -> text.append('\r');
+                case '\\' -> text.append('\\');
+                default -> text.append(c).append(escaped); // Неизвестная последовательность остаётся как есть
+            }
+        }
+        return text.toString();
+    }
+
+    int nextInt() {
+        long value = nextLong();
+        if (value != (int) value) {
+            throw new NumberFormatException("Число вне диапазона int: " + value);
+        }
+        return (int) value;
+    }
+
+    long nextLong() {
+        int start = position;
+        int index = start;
+        boolean negative = false;
+        if (index < end && (line.charAt(index) == '-' || line.charAt(index) == '+')) {
+            negative = line.charAt(index) == '-';
+            index++;
+        }
+        if (index == end) {
+            throw new NumberFormatException("Ожидалось число: " + line.substring(start, end));
+        }
+
+        long value = 0;
+        for (; index < end; index++) {
+            int digit = line.charAt(index) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Ожидалось число: " + line.substring(start, end));
+            }
+            value = value * 10 + digit;
+        }
+        advance();
+        return negative ? -value : value;
+    }
+
+    <E extends Enum<E>> E nextEnum(E[] values) {
+        for (E value : values) {
+            String name = value.name();
+            if (end - position == name.length() && line.startsWith(name, position)) {
+                advance();
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестное значение: " + line.substring(position, end));
+    }
+
+    LocalDateTime nextDateTime() { // Пустое значение записывается как null
+        if (end - position == 4 && line.startsWith("null", position)) {
+            advance();
+            return null;
+        }
+        LocalDateTime value = LocalDateTime.parse(line.subSequence(position, end));
+        advance();
+        return value;
+    }
+
+    static String escape(String value) { // null записывается как строка null, как и в основном файле
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder text = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = switch (c) {
+                case ',' -> "\\c";
+                case '\n' -> "\\n";
+                case '\r' -> "\\r";
+                case '\\' -> "\\\\";
+                default -> null;
+            };
+            if (replacement != null && text == null) {
+                text = new StringBuilder(value.length() + 8).append(value, 0, i);
+            }
+            if (text != null) {
+                if (replacement != null) {
+                    text.append(replacement);
+                } else {
+                    text.append(c);
+                }
+            }
+        }
+        return text != null ? text.toString() : value;
+    }
+
+    private void advance() {
+        position = end + 1;
+        findEnd();
+    }
+
+    private void findEnd() {
+        if (position > line.length()) {
+            end = position;
+            return;
+        }
+        int comma = line.indexOf(',', position);
+        end = comma < 0 ? line.length() : comma;
+    }
+}
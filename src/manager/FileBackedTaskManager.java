@@ -1,207 +1,656 @@
 package manager;
 
+import metrics.Counter;
+import metrics.Histogram;
+import metrics.MetricsRegistry;
 import task.Epic;
 import task.SubTask;
 import task.Task;
 import tools.Status;
 import tools.TaskType;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    private static final String HEADER = "id,type,name,description,status,startTime,duration,endTime,subTaskId";
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String TEMP_SUFFIX = ".tmp";
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
     private final File file;
+    private final Path journal;
+    private final StorageConfig config;
+    private final Object stateLock = new Object(); // Защищает состояние менеджера и очередь изменений
+    private final Object ioLock = new Object(); // Упорядочивает запись в файлы
+    private final List<String> pendingRecords = new ArrayList<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicBoolean flushTimerStarted = new AtomicBoolean();
+    private final ScheduledExecutorService writer;
+    private final Histogram flushLatency;
+    private final Counter journalWrites;
+    private final Counter snapshotWrites;
+    private final Counter flushFailures;
+    private int pendingChanges;
+    private int journalRecords = -1; // -1: состояние журнала на диске ещё не сверено с основным файлом
+    private volatile ManagerSaveException backgroundFailure;
+    private LoadReport loadReport = LoadReport.EMPTY;
 
     public FileBackedTaskManager(File file) {
+        this(file, StorageConfig.snapshot());
+    }
+
+    public FileBackedTaskManager(File file, StorageConfig config) {
         this.file = file;
+        this.config = config;
+        this.journal = file.toPath().resolveSibling(file.getName() + JOURNAL_SUFFIX);
+        this.writer = config.isSynchronous() ? null : createWriter();
+
+        // Без общего реестра метрики пишутся в собственный и никуда не выдаются
+        MetricsRegistry metrics = config.getMetrics() != null ? config.getMetrics() : new MetricsRegistry();
+        String fileName = file.getName();
+        this.flushLatency = metrics.histogram("storage_flush_seconds", "Длительность сохранения изменений в файл",
+                "file", fileName);
+        this.journalWrites = metrics.counter("storage_journal_records_total", "Записи, дописанные в журнал",
+                "file", fileName);
+        this.snapshotWrites = metrics.counter("storage_snapshots_total", "Перезаписи основного файла",
+                "file", fileName);
+        this.flushFailures = metrics.counter("storage_flush_failures_total", "Неудачные сохранения",
+                "file", fileName);
     }
 
     public static FileBackedTaskManager loadFromFile(File file) {
-        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        return loadFromFile(file, StorageConfig.snapshot());
+    }
 
-        try {
-            List<String> fileData = Files.readAllLines(file.toPath());
+    /* Загружает основной файл в любом из форматов и, если он есть, проигрывает поверх него журнал операций.
+       Записи журнала содержат задачу целиком, поэтому повторное проигрывание уже свёрнутых записей безопасно.
+       Файлы читаются построчно, подзадачи связываются с эпиками сразу при загрузке */
+    public static FileBackedTaskManager loadFromFile(File file, StorageConfig config) {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, config);
+        long startNanos = System.nanoTime();
 
-            for (int i = 1; i < fileData.size(); i++) {
-                Task task = fromString(fileData.get(i));
+        try {
+            TaskLoader loader = new TaskLoader(manager);
+            long bytes = Files.size(file.toPath());
 
-                if (task != null) {
-                    switch (task.getType()) {
-                        case TASK:
-                            manager.tasks.put(task.getId(), task);
-                            break;
-                        case EPIC:
-                            manager.epics.put(task.getId(), (Epic) task);
-                            break;
-                        case SUBTASK:
-                            SubTask subTask = (SubTask) task;
-                            manager.subTasks.put(subTask.getId(), subTask);
-                            break;
-                    }
-                    if (task.getId() >= manager.counter) {
-                        manager.counter = task.getId() + 1;
-                    }
-                }
-            }
+            if (Files.exists(manager.journal)) {
+                Map<Integer, Task> loaded = new LinkedHashMap<>();
+                loader.readSnapshot(file.toPath(), task -> loaded.put(task.getId(), task));
+                manager.journalRecords = loader.readJournal(manager.journal, loaded);
+                bytes += Files.size(manager.journal);
 
-            // Связь подзадач с эпиками
-            for (SubTask subTask : manager.subTasks.values()) {
-                Epic epic = manager.epics.get(subTask.getEpicId());
-                if (epic != null) {
-                    epic.addSubTaskId(subTask.getId());
-                }
+                loaded.values().forEach(loader::restore);
+                manager.updateEpicStatuses(); // Журнал не содержит эпиков, изменённых через подзадачи
+            } else {
+                loader.readSnapshot(file.toPath(), loader::restore);
+                manager.journalRecords = 0;
             }
 
+            manager.counter = Math.max(manager.counter, loader.maxId + 1);
+            manager.loadReport = new LoadReport(loader.rows, bytes, System.nanoTime() - startNanos);
         } catch (IOException e) {
+            closeAfterFailure(manager, e);
             throw new ManagerSaveException("Ошибка при чтении файла", e);
+        } catch (RuntimeException e) { // Повреждённая строка: неверное число, дата, тип задачи или операция
+            closeAfterFailure(manager, e);
+            throw new ManagerSaveException("Некорректная запись в файле", e);
         }
         return manager;
     }
 
-    // Переопределяем все методы, изменяющие состояние, чтобы вызывать save()
+    // Останавливает фоновую запись менеджера, который не удалось загрузить, не теряя исходную ошибку
+    private static void closeAfterFailure(FileBackedTaskManager manager, Exception failure) {
+        try {
+            manager.close();
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    public LoadReport getLoadReport() {
+        return loadReport;
+    }
+
+    // Переопределяем все методы, изменяющие состояние, чтобы сохранить изменение
     @Override
     public void addTask(Task task) {
-        super.addTask(task);
-        save();
+        applyChange(() -> super.addTask(task), () -> List.of(record(JournalOperation.ADD, task)));
     }
 
     @Override
     public void addEpic(Epic epic) {
-        super.addEpic(epic);
-        save();
+        applyChange(() -> super.addEpic(epic), () -> List.of(record(JournalOperation.ADD, epic)));
     }
 
     @Override
     public void addSubTask(SubTask subtask) {
-        super.addSubTask(subtask);
-        save();
+        applyChange(() -> super.addSubTask(subtask), () -> List.of(record(JournalOperation.ADD, subtask)));
     }
 
     @Override
     public void updateTask(Task task) {
-        super.updateTask(task);
-        save();
+        applyChange(() -> super.updateTask(task), () -> List.of(record(JournalOperation.UPDATE, task)));
     }
 
     @Override
     public void updateEpic(Epic epic) {
-        super.updateEpic(epic);
-        save();
+        applyChange(() -> super.updateEpic(epic), () -> List.of(record(JournalOperation.UPDATE, epic)));
     }
 
     @Override
     public void updateSubTask(SubTask subtask) {
-        super.updateSubTask(subtask);
-        save();
+        applyChange(() -> super.updateSubTask(subtask), () -> List.of(record(JournalOperation.UPDATE, subtask)));
     }
 
     @Override
     public void deleteTaskById(int id) {
-        super.deleteTaskById(id);
-        save();
+        applyChange(() -> super.deleteTaskById(id), () -> List.of(JournalOperation.DELETE + "," + id));
     }
 
     @Override
     public void deleteEpicById(int id) {
-        super.deleteEpicById(id);
-        save();
+        List<String> records = new ArrayList<>();
+        applyChange(() -> {
+            Epic epic = epics.get(id);
+            if (epic != null) {
+                epic.getSubTaskIds().forEachInt(subTaskId -> records.add(JournalOperation.DELETE + "," + subTaskId));
+            }
+            records.add(JournalOperation.DELETE + "," + id);
+            super.deleteEpicById(id);
+        }, () -> records);
     }
 
     @Override
     public void deleteSubTaskById(int id) {
-        super.deleteSubTaskById(id);
-        save();
+        applyChange(() -> super.deleteSubTaskById(id), () -> List.of(JournalOperation.DELETE + "," + id));
     }
 
     @Override
     public void deleteAllTasks() {
-        super.deleteAllTasks();
-        save();
+        applyChange(super::deleteAllTasks, () -> List.of(JournalOperation.CLEAR + "," + TaskType.TASK));
     }
 
     @Override
     public void deleteAllEpics() {
-        super.deleteAllEpics();
-        save();
+        applyChange(super::deleteAllEpics, () -> List.of(JournalOperation.CLEAR + "," + TaskType.SUBTASK,
+                JournalOperation.CLEAR + "," + TaskType.EPIC));
     }
 
     @Override
     public void deleteAllSubTasks() {
-        super.deleteAllSubTasks();
-        save();
+        applyChange(super::deleteAllSubTasks, () -> List.of(JournalOperation.CLEAR + "," + TaskType.SUBTASK));
+    }
+
+    @Override
+    public BatchResult addTasks(List<Task> tasks) {
+        return applyBatch(() -> super.addTasks(tasks), JournalOperation.ADD);
+    }
+
+    @Override
+    public BatchResult addSubTasks(List<SubTask> subtasks) {
+        return applyBatch(() -> super.addSubTasks(subtasks), JournalOperation.ADD);
+    }
+
+    @Override
+    public BatchResult updateSubTasks(List<SubTask> subtasks) {
+        return applyBatch(() -> super.updateSubTasks(subtasks), JournalOperation.UPDATE);
+    }
+
+    @Override
+    public ScheduleResult scheduleTasks(List<Integer> ids, LocalDateTime from, LocalDateTime to, boolean dryRun) {
+        if (dryRun) {
+            return super.scheduleTasks(ids, from, to, true);
+        }
+        return applyBatch(() -> super.scheduleTasks(ids, from, to, false), JournalOperation.UPDATE);
+    }
+
+    @Override
+    public BatchResult deleteByIds(List<Integer> ids) {
+        List<String> records = new ArrayList<>();
+        List<BatchResult> result = new ArrayList<>(1);
+        applyChange(() -> {
+            for (int id : ids) { // Подзадачи удаляемых эпиков попадают в журнал отдельными записями
+                Epic epic = epics.get(id);
+                if (epic != null) {
+                    epic.getSubTaskIds().forEachInt(subTaskId ->
+                            records.add(JournalOperation.DELETE + "," + subTaskId));
+                }
+            }
+            result.add(super.deleteByIds(ids));
+            result.getFirst().getApplied().forEach(task -> records.add(JournalOperation.DELETE + "," + task.getId()));
+        }, () -> records);
+        return result.getFirst();
+    }
+
+    /* Записывает накопленные изменения одной пачкой: в режиме журнала дописывает их записи,
+       в режиме снимка перезаписывает файл один раз за всю пачку */
+    public void flush() {
+        ManagerSaveException failure = backgroundFailure;
+        if (failure != null) {
+            backgroundFailure = null;
+            throw failure;
+        }
+
+        synchronized (ioLock) {
+            List<String> records = null;
+            byte[] snapshot = null;
+            long start = System.nanoTime();
+
+            try {
+                synchronized (stateLock) {
+                    if (pendingChanges == 0) {
+                        return;
+                    }
+                    if (config.getMode() == StorageMode.SNAPSHOT || journalRecords < 0) {
+                        snapshot = renderSnapshot(config.getFormat());
+                    } else {
+                        records = new ArrayList<>(pendingRecords);
+                    }
+                    pendingRecords.clear();
+                    pendingChanges = 0;
+                }
+
+                if (records != null) {
+                    writeLines(journal, records, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                            StandardOpenOption.APPEND);
+                    journalRecords += records.size();
+                    journalWrites.add(records.size());
+                    if (journalRecords >= config.getCompactionThreshold()) {
+                        synchronized (stateLock) {
+                            snapshot = renderSnapshot(config.getFormat());
+                        }
+                    }
+                }
+                if (snapshot != null) {
+                    writeSnapshot(snapshot);
+                    snapshotWrites.increment();
+                }
+                flushLatency.recordSince(start);
+            } catch (IOException e) {
+                flushFailures.increment();
+                synchronized (stateLock) {
+                    pendingChanges++; // Следующее сохранение перезапишет файл целиком
+                }
+                journalRecords = -1;
+                throw new ManagerSaveException("Ошибка при сохранении в файл", e);
+            }
+        }
+    }
+
+    @Override
+    public void close() { // Сохраняет оставшиеся изменения и останавливает фоновую запись
+        if (writer != null) {
+            writer.shutdown();
+            try {
+                writer.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    private void applyChange(Runnable mutation, Supplier<List<String>> records) {
+        boolean flushNow;
+        synchronized (stateLock) {
+            mutation.run();
+            if (config.getMode() == StorageMode.JOURNAL) {
+                pendingRecords.addAll(records.get());
+            }
+            pendingChanges++;
+            flushNow = config.getFlushOperations() > 0 && pendingChanges >= config.getFlushOperations();
+        }
+
+        startFlushTimer();
+        if (!flushNow) {
+            return;
+        }
+        if (writer == null) {
+            flush();
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                writer.execute(this::flushInBackground);
+            } catch (RejectedExecutionException e) { // Фоновая запись уже остановлена методом close()
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    // Весь пакет - одно изменение: одна пачка записей журнала и не больше одного сохранения
+    private <R extends BatchResult> R applyBatch(Supplier<R> mutation, JournalOperation operation) {
+        List<R> result = new ArrayList<>(1);
+        applyChange(() -> result.add(mutation.get()), () -> {
+            List<String> records = new ArrayList<>();
+            result.getFirst().getApplied().forEach(task -> records.add(record(operation, task)));
+            return records;
+        });
+        return result.getFirst();
+    }
+
+    /* Сохранение по времени запускается с первым изменением, а не в конструкторе: задача таймера ссылается
+       на менеджер, и из конструктора она могла бы выполниться до окончания конструктора подкласса */
+    private void startFlushTimer() {
+        if (writer == null || config.getFlushIntervalMillis() <= 0 || !flushTimerStarted.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            writer.scheduleWithFixedDelay(this::flushQuietly, config.getFlushIntervalMillis(),
+                    config.getFlushIntervalMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) { // Фоновая запись уже остановлена методом close()
+            flushTimerStarted.set(false);
+        }
     }
 
-    private void save() {
+    private void flushInBackground() {
+        flushScheduled.set(false);
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
         try {
-            List<String> lines = new ArrayList<>();
-            lines.add("id,type,name,description,status,startTime,duration,endTime,subTaskId");
+            flush();
+        } catch (ManagerSaveException e) {
+            backgroundFailure = e; // Будет выброшено при следующем явном вызове flush()
+        }
+    }
+
+    void exportSnapshot(Path target, SnapshotFormat format) throws IOException { // Для конвертации форматов
+        byte[] snapshot;
+        synchronized (stateLock) {
+            snapshot = renderSnapshot(format);
+        }
+        writeBytes(target, snapshot, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private byte[] renderSnapshot(SnapshotFormat format) throws IOException {
+        if (format == SnapshotFormat.BINARY) {
+            List<Task> all = new ArrayList<>(getAllTasks());
+            all.addAll(getAllEpics());
+            all.addAll(getAllSubTasks());
+            return BinarySnapshot.write(all);
+        }
+
+        StringBuilder content = new StringBuilder();
+        content.append(HEADER).append(System.lineSeparator());
+
+        for (Task task : getAllTasks()) {
+            content.append(task.toStringFromFile()).append(System.lineSeparator());
+        }
+
+        for (Epic epic : getAllEpics()) {
+            content.append(epic.toStringFromFile()).append(System.lineSeparator());
+        }
+
+        for (SubTask subtask : getAllSubTasks()) {
+            content.append(subtask.toStringFromFile()).append(System.lineSeparator());
+        }
+        return content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void writeSnapshot(byte[] snapshot) throws IOException { // Журнал после этого уже не нужен
+        Path target = file.toPath();
+        if (config.isAtomicRename()) {
+            Path temp = target.resolveSibling(file.getName() + TEMP_SUFFIX);
+            writeBytes(temp, snapshot, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } else {
+            writeBytes(target, snapshot, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        if (journalRecords != 0) {
+            Files.deleteIfExists(journal);
+            journalRecords = 0;
+        }
+    }
+
+    private void writeLines(Path path, List<String> lines, OpenOption... options) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (String line : lines) {
+            content.append(line).append(System.lineSeparator());
+        }
+
+        writeBytes(path, content.toString().getBytes(StandardCharsets.UTF_8), options);
+    }
+
+    private void writeBytes(Path path, byte[] content, OpenOption... options) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (config.isFsync()) {
+                channel.force(true);
+            }
+        }
+    }
+
+    /* Запись журнала - одна строка в порядке полей основного файла. Название и описание экранируются,
+       иначе запятая или перевод строки в них сдвинули бы поля, и журнал не загрузился бы */
+    private static String record(JournalOperation operation, Task task) {
+        Duration duration = task.getDuration();
+        StringBuilder record = new StringBuilder(64)
+                .append(operation).append(',').append(task.getId()).append(',').append(task.getType()).append(',')
+                .append(CsvLineTokenizer.escape(task.getName())).append(',').append(task.getStatus()).append(',')
+                .append(CsvLineTokenizer.escape(task.getDescription())).append(',')
+                .append(duration != null ? duration.toMinutes() : 0).append(',').append(task.getStartTime());
+        if (task instanceof SubTask subTask) {
+            record.append(',').append(subTask.getEpicId());
+        }
+        return record.toString();
+    }
+
+    private static ScheduledExecutorService createWriter() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-storage-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private enum JournalOperation {
+        ADD,
+        UPDATE,
+        DELETE,
+        CLEAR
+    }
+
+    private static class TaskLoader {
+        private final FileBackedTaskManager manager;
+        private final CsvLineTokenizer tokenizer = new CsvLineTokenizer();
+        private final Map<Integer, List<SubTask>> waitingForEpic = new HashMap<>();
+        private long rows;
+        private int maxId;
+
+        TaskLoader(FileBackedTaskManager manager) {
+            this.manager = manager;
+        }
 
-            for (Task task : getAllTasks()) {
-                lines.add(task.toStringFromFile());
+        void readSnapshot(Path path, Consumer<Task> consumer) throws IOException {
+            if (BinarySnapshot.isBinary(path)) {
+                rows += BinarySnapshot.read(path, task -> {
+                    maxId = Math.max(maxId, task.getId());
+                    consumer.accept(task);
+                });
+                return;
             }
 
-            for (Epic epic : getAllEpics()) {
-                lines.add(epic.toStringFromFile());
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                reader.readLine(); // Заголовок
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    tokenizer.reset(line);
+                    Task task = readTask(false);
+                    if (task != null) {
+                        rows++;
+                        maxId = Math.max(maxId, task.getId());
+                        consumer.accept(task);
+                    }
+                }
             }
+        }
 
-            for (SubTask subtask : getAllSubTasks()) {
-                lines.add(subtask.toStringFromFile());
+        // Применяет записи журнала к загруженным задачам и возвращает число записей
+        int readJournal(Path path, Map<Integer, Task> loaded) throws IOException {
+            truncateIncompleteTail(path);
+            int records = 0;
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    tokenizer.reset(line);
+                    replay(tokenizer.nextEnum(JournalOperation.values()), loaded);
+                    records++;
+                    rows++;
+                }
             }
+            return records;
+        }
 
-            Files.write(file.toPath(), lines);
-        } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка при сохранении в файл", e);
-        }
-    }
-
-    private static Task fromString(String value) { // Метод преобразует CSV-строку обратно в объект задачи
-        String[] fields = value.split(",");
-        if (fields.length < 5) {
-            return null;
-        }
-
-        int id = Integer.parseInt(fields[0]);
-        TaskType type = TaskType.valueOf(fields[1]);
-        String name = fields[2];
-        Status status = Status.valueOf(fields[3]);
-        String description = fields[4];
-        Duration duration = (fields.length > 5 && !fields[5].equals("0")) ?
-                Duration.ofMinutes(Long.parseLong(fields[5])) : null;
-        LocalDateTime startTime = (fields.length > 6 && !fields[6].equals("null")) ?
-                LocalDateTime.parse(fields[6]) : null;
-
-        switch (type) {
-            case TASK:
-                Task task = new Task(name, description, status, duration, startTime);
-                task.setId(id);
-                return task;
-            case EPIC:
-                Epic epic = new Epic(name, description, status, duration, startTime);
-                epic.setId(id);
-                return epic;
-            case SUBTASK:
-                int epicId = parseEpicId(fields);
-                SubTask subTask = new SubTask(name, description, status, epicId, duration, startTime);
-                subTask.setId(id);
-                return subTask;
-            default:
+        /* Сбой посреди дозаписи оставляет недописанную последнюю строку журнала: изменение не было сохранено,
+           поэтому строка отрезается - её не нужно разбирать, а следующая запись начнётся с новой строки */
+        private static void truncateIncompleteTail(Path path) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long size = channel.size();
+                long end = size;
+                ByteBuffer block = ByteBuffer.allocate(4096);
+                while (end > 0) {
+                    long from = Math.max(0, end - block.capacity());
+                    block.clear().limit((int) (end - from));
+                    while (block.hasRemaining()) { // Чтение с позиции может вернуть блок не целиком
+                        if (channel.read(block, from + block.position()) < 0) {
+                            break;
+                        }
+                    }
+                    int newline = block.position() - 1;
+                    while (newline >= 0 && block.get(newline) != '\n') {
+                        newline--;
+                    }
+                    if (newline >= 0) {
+                        end = from + newline + 1;
+                        break;
+                    }
+                    end = from;
+                }
+                if (end < size) {
+                    channel.truncate(end);
+                }
+            }
+        }
+
+        void restore(Task task) { // Подзадача, эпик которой ещё не загружен, ждёт его появления
+            manager.restoreTask(task);
+
+            if (task instanceof SubTask subTask && !manager.epics.containsKey(subTask.getEpicId())) {
+                waitingForEpic.computeIfAbsent(subTask.getEpicId(), epicId -> new ArrayList<>()).add(subTask);
+            } else if (task instanceof Epic epic) {
+                List<SubTask> waiting = waitingForEpic.remove(epic.getId());
+                if (waiting != null) {
+                    waiting.forEach(epic::addSubTask);
+                }
+            }
+        }
+
+        private void replay(JournalOperation operation, Map<Integer, Task> loaded) {
+            switch (operation) {
+                case ADD:
+                case UPDATE:
+                    Task task = readTask(true);
+                    if (task != null) {
+                        loaded.put(task.getId(), task);
+                        maxId = Math.max(maxId, task.getId());
+                    }
+                    break;
+                case DELETE:
+                    int id = tokenizer.nextInt();
+                    loaded.remove(id);
+                    maxId = Math.max(maxId, id);
+                    break;
+                case CLEAR:
+                    TaskType type = tokenizer.nextEnum(TaskType.values());
+                    loaded.values().removeIf(loadedTask -> loadedTask.getType() == type);
+                    break;
+            }
+        }
+
+        // Метод преобразует CSV-строку обратно в объект задачи; escaped - текстовые поля записаны через escape
+        private Task readTask(boolean escaped) {
+            if (tokenizer.remainingFields() < 5) {
                 return null;
+            }
+
+            int id = tokenizer.nextInt();
+            TaskType type = tokenizer.nextEnum(TaskType.values());
+            String name = escaped ? tokenizer.nextEscaped() : tokenizer.next();
+            Status status = tokenizer.nextEnum(Status.values());
+            String description = escaped ? tokenizer.nextEscaped() : tokenizer.next();
+            Duration duration = null;
+            if (tokenizer.hasNext()) {
+                long minutes = tokenizer.nextLong();
+                duration = minutes != 0 ? Duration.ofMinutes(minutes) : null;
+            }
+            LocalDateTime startTime = tokenizer.hasNext() ? tokenizer.nextDateTime() : null;
+
+            switch (type) {
+                case TASK:
+                    Task task = new Task(name, description, status, duration, startTime);
+                    task.setId(id);
+                    return task;
+                case EPIC:
+                    Epic epic = new Epic(name, description, status, duration, startTime);
+                    epic.setId(id);
+                    return epic;
+                case SUBTASK:
+                    int epicId = readEpicId();
+                    SubTask subTask = new SubTask(name, description, status, epicId, duration, startTime);
+                    subTask.setId(id);
+                    return subTask;
+                default:
+                    return null;
+            }
         }
-    }
 
-    private static int parseEpicId(String[] fields) {
-        if (fields.length > 7 && !fields[7].isEmpty()) {
+        private int readEpicId() {
+            if (!tokenizer.hasNext()) {
+                return 0;
+            }
             try {
-                return Integer.parseInt(fields[7].trim());
+                return tokenizer.nextInt();
             } catch (NumberFormatException e) {
                 return 0;
             }
         }
-        return 0;
     }
-}
\ No newline at end of file
+}
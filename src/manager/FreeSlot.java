@@ -0,0 +1,26 @@
+package manager;
+
+import java.time.LocalDateTime;
+
+public class FreeSlot { // Свободный промежуток расписания [start, end); end == null - после последней задачи
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    public FreeSlot(LocalDateTime start, LocalDateTime end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    @Override
+    public String toString() { // Интервал ISO 8601: начало/конец, у открытого промежутка конец пустой
+        return start + "/" + (end == null ? "" : end);
+    }
+}
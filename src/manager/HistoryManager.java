@@ -2,6 +2,7 @@ package manager;
 
 import task.Task;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public interface HistoryManager {
@@ -11,4 +12,12 @@ public interface HistoryManager {
     void remove(int id);
 
     List<Task> getHistory();
+
+    int size(); // Число задач в истории без копирования списка
+
+    default List<Task> getHistory(int offset, int limit) { // Часть истории: limit просмотров, начиная с offset
+        List<Task> history = getHistory();
+        int from = Math.min(offset, history.size());
+        return new ArrayList<>(history.subList(from, Math.min(history.size(), from + limit)));
+    }
 }
\ No newline at end of file
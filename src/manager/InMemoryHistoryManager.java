@@ -9,9 +9,21 @@ import java.util.Map;
 
 public class InMemoryHistoryManager implements HistoryManager {
     private final Map<Integer, Node> historyMap = new HashMap<>();
+    private final int maxSize;
     private Node head;
     private Node tail;
 
+    public InMemoryHistoryManager() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public InMemoryHistoryManager(int maxSize) { // При переполнении вытесняется давно не просмотренная задача
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Размер истории должен быть положительным");
+        }
+        this.maxSize = maxSize;
+    }
+
     @Override
     public void add(Task task) {
         int id = task.getId();
@@ -19,6 +31,9 @@ public class InMemoryHistoryManager implements HistoryManager {
             remove(id);
         }
         linkLast(task);
+        if (historyMap.size() > maxSize) {
+            remove(head.task.getId());
+        }
     }
 
     @Override
@@ -35,6 +50,11 @@ public class InMemoryHistoryManager implements HistoryManager {
         return getTasks();
     }
 
+    @Override
+    public int size() {
+        return historyMap.size();
+    }
+
     private void linkLast(Task task) {
         final Node newNode = new Node(task, tail, null);
 
@@ -64,6 +84,20 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
     }
 
+    @Override
+    public List<Task> getHistory(int offset, int limit) { // Обход списка с начала, без копирования всей истории
+        List<Task> page = new ArrayList<>(Math.min(limit, historyMap.size()));
+        Node current = head;
+        for (int skipped = 0; current != null && skipped < offset; skipped++) {
+            current = current.next;
+        }
+        while (current != null && page.size() < limit) {
+            page.add(current.task);
+            current = current.next;
+        }
+        return page;
+    }
+
     private List<Task> getTasks() {
         List<Task> tasks = new ArrayList<>();
         Node current = head;
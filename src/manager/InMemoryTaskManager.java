@@ -1,180 +1,227 @@
 package manager;
 
+import collection.IntHashSet;
+import collection.IntObjectHashMap;
 import task.Epic;
 import task.SubTask;
 import task.Task;
+import tools.BatchError;
+import tools.CollectionType;
 import tools.Status;
+import tools.TaskType;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
 
 public class InMemoryTaskManager implements TaskManager {
     protected int counter = 1;
-    protected Map<Integer, Task> tasks = new HashMap<>();
-    protected Map<Integer, Epic> epics = new HashMap<>();
-    protected Map<Integer, SubTask> subTasks = new HashMap<>();
-    protected HistoryManager historyManager = Managers.getDefaultHistory();
-    protected Set<Task> prioritizedTasks = new TreeSet<>(
-            Comparator.comparing(Task::getStartTime,
-                            Comparator.nullsLast(Comparator.naturalOrder()))
-                    .thenComparingInt(Task::getId));
+    protected IntObjectHashMap<Task> tasks = new IntObjectHashMap<>();
+    protected IntObjectHashMap<Epic> epics = new IntObjectHashMap<>();
+    protected IntObjectHashMap<SubTask> subTasks = new IntObjectHashMap<>();
+    protected HistoryManager historyManager;
+    /* Дерево приоритетов по началу и id. Ключ хранит начало на момент индексации: задачу могут изменить на месте
+       и передать в update, и тогда по её текущему времени старый узел не найти. Ключи по id нужны для удаления */
+    private final NavigableMap<PriorityKey, Task> prioritizedTasks = new TreeMap<>(
+            Comparator.comparing((PriorityKey key) -> key.start).thenComparingInt(key -> key.id));
+    private final IntObjectHashMap<PriorityKey> priorityKeys = new IntObjectHashMap<>();
+    private final TimeSlotIndex timeSlots = new TimeSlotIndex();
+    private final StatusIndex statusIndex = new StatusIndex();
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final List<TaskChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLongArray versions = new AtomicLongArray(CollectionType.values().length);
+    // Неизменяемые снимки полных списков с версией, по которой они собраны
+    private final AtomicReferenceArray<Snapshot> snapshots = new AtomicReferenceArray<>(CollectionType.values().length);
+
+    public InMemoryTaskManager() {
+        this(Managers.getDefaultHistory());
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager) {
+        this.historyManager = historyManager;
+    }
 
     @Override
     public List<Task> getAllTasks() {
-        return new ArrayList<>(tasks.values());
+        return snapshot(CollectionType.TASKS, tasks::values);
     }
 
     @Override
     public List<Epic> getAllEpics() {
-        return new ArrayList<>(epics.values());
+        return snapshot(CollectionType.EPICS, epics::values);
     }
 
     @Override
     public List<SubTask> getAllSubTasks() {
-        return new ArrayList<>(subTasks.values());
+        return snapshot(CollectionType.SUBTASKS, subTasks::values);
     }
 
     @Override
     public void deleteAllTasks() {
-        getPrioritizedTasks().removeIf(task -> tasks.containsKey(task.getId()));
+        tasks.values().forEach(this::removeFromIndexes);
         tasks.values().forEach(task -> historyManager.remove(task.getId()));
         tasks.clear();
+        touch(CollectionType.TASKS, CollectionType.PRIORITIZED, CollectionType.HISTORY);
     }
 
     @Override
     public void deleteAllEpics() {
-        getPrioritizedTasks().removeIf(task -> epics.containsKey(task.getId()) ||
-                (task instanceof SubTask && epics.containsKey(((SubTask) task).getEpicId())));
+        subTasks.values().forEach(this::removeFromIndexes);
         epics.values().forEach(epic -> historyManager.remove(epic.getId()));
+        epics.values().forEach(epic -> removeEpicFromIndexes(epic.getId()));
         subTasks.values().forEach(subTask -> historyManager.remove(subTask.getId()));
         epics.clear();
         subTasks.clear();
+        touch(CollectionType.EPICS, CollectionType.SUBTASKS, CollectionType.PRIORITIZED, CollectionType.HISTORY);
     }
 
     @Override
     public void deleteAllSubTasks() {
-        getPrioritizedTasks().removeIf(task -> task instanceof SubTask);
+        subTasks.values().forEach(this::removeFromIndexes);
         subTasks.values().forEach(subTask -> historyManager.remove(subTask.getId()));
         subTasks.clear();
         for (Epic epic : epics.values()) {
-            epic.getSubTaskIds().clear();
+            epic.clearSubTasks();
             updateStatus(epic);
         }
+        touch(CollectionType.SUBTASKS, CollectionType.EPICS, CollectionType.PRIORITIZED, CollectionType.HISTORY);
     }
 
     @Override
     public Task getTaskById(int id) {
-        historyManager.add(tasks.get(id));
-        return tasks.get(id);
+        Task task = tasks.get(id);
+        if (task != null) { // Несуществующая задача в историю не попадает
+            historyManager.add(task);
+            touch(CollectionType.HISTORY);
+        }
+        return task;
     }
 
     @Override
     public Epic getEpicById(int id) {
-        historyManager.add(epics.get(id));
-        return epics.get(id);
+        Epic epic = epics.get(id);
+        if (epic != null) {
+            historyManager.add(epic);
+            touch(CollectionType.HISTORY);
+        }
+        return epic;
     }
 
     @Override
     public SubTask getSubTaskById(int id) {
-        historyManager.add(subTasks.get(id));
-        return subTasks.get(id);
+        SubTask subTask = subTasks.get(id);
+        if (subTask != null) {
+            historyManager.add(subTask);
+            touch(CollectionType.HISTORY);
+        }
+        return subTask;
     }
 
     @Override
     public void addTask(Task task) {
-        if (isTaskOverlapping(task)) {
-            throw new ManagerSaveException("Задача пересекается по времени с существующей");
-        }
+        checkOverlapping(task, "Задача пересекается по времени с существующей");
 
         task.setId(addId());
         tasks.put(task.getId(), task);
-        addToPrioritizedTasks(task);
+        addToIndexes(task);
+        touch(CollectionType.TASKS, CollectionType.PRIORITIZED);
     }
 
     @Override
     public void addEpic(Epic epic) {
         epic.setId(addId());
         epics.put(epic.getId(), epic);
+        addEpicToIndexes(epic);
+        touch(CollectionType.EPICS);
     }
 
     @Override
     public void addSubTask(SubTask subtask) {
-        if (isTaskOverlapping(subtask)) {
-            throw new ManagerSaveException("Подзадача пересекается по времени с существующей");
-        }
+        checkOverlapping(subtask, "Подзадача пересекается по времени с существующей");
 
         subtask.setId(addId());
         subTasks.put(subtask.getId(), subtask);
         Epic epic = epics.get(subtask.getEpicId());
-        epic.addSubTaskId(subtask.getId());
+        epic.addSubTask(subtask);
         updateStatus(epic);
-        addToPrioritizedTasks(subtask);
+        addToIndexes(subtask);
+        touch(CollectionType.SUBTASKS, CollectionType.EPICS, CollectionType.PRIORITIZED);
     }
 
     @Override
     public void updateTask(Task task) {
-        Task existingTask = tasks.get(task.getId());
-        getPrioritizedTasks().remove(existingTask);
+        checkOverlapping(task, "Обновленная задача пересекается по времени с существующей");
 
-        if (isTaskOverlapping(task)) {
-            getPrioritizedTasks().add(existingTask);
-            throw new ManagerSaveException("Обновленная задача пересекается по времени с существующей");
-        }
-
-        tasks.put(task.getId(), task);
-        addToPrioritizedTasks(task);
+        Task existingTask = tasks.put(task.getId(), task);
+        removeFromIndexes(existingTask);
+        addToIndexes(task);
+        touch(CollectionType.TASKS, CollectionType.PRIORITIZED);
     }
 
     @Override
     public void updateEpic(Epic epic) {
-        epics.put(epic.getId(), epic);
+        Epic existingEpic = epics.put(epic.getId(), epic);
+        if (existingEpic != null && existingEpic != epic) { // Подзадачами эпика управляет менеджер
+            epic.copySubTasksFrom(existingEpic);
+        }
+        updateStatus(epic);
+        searchIndex.update(epic);
+        touch(CollectionType.EPICS);
     }
 
     @Override
     public void updateSubTask(SubTask subtask) {
-
-        SubTask existingSubTask = subTasks.get(subtask.getId());
-        getPrioritizedTasks().remove(existingSubTask);
-
-        if (isTaskOverlapping(subtask)) {
-            getPrioritizedTasks().add(existingSubTask);
-            throw new ManagerSaveException("Обновленная подзадача пересекается по времени с существующей");
+        checkOverlapping(subtask, "Обновленная подзадача пересекается по времени с существующей");
+
+        SubTask existingSubTask = subTasks.put(subtask.getId(), subtask);
+        removeFromIndexes(existingSubTask);
+        if (existingSubTask != null && existingSubTask.getEpicId() != subtask.getEpicId()) { // Перенос в другой эпик
+            Epic previousEpic = epics.get(existingSubTask.getEpicId());
+            if (previousEpic != null) {
+                previousEpic.removeSubTask(subtask.getId());
+                updateStatus(previousEpic);
+            }
         }
-
-        subTasks.put(subtask.getId(), subtask);
         Epic epic = epics.get(subtask.getEpicId());
+        epic.addSubTask(subtask);
         updateStatus(epic);
-        addToPrioritizedTasks(subtask);
+        addToIndexes(subtask);
+        touch(CollectionType.SUBTASKS, CollectionType.EPICS, CollectionType.PRIORITIZED);
     }
 
     @Override
     public void deleteTaskById(int id) {
-        tasks.remove(id);
+        removeFromIndexes(tasks.remove(id));
         historyManager.remove(id);
+        touch(CollectionType.TASKS, CollectionType.PRIORITIZED, CollectionType.HISTORY);
     }
 
     @Override
     public void deleteEpicById(int id) {
         Epic epic = epics.remove(id);
-        getPrioritizedTasks().removeIf(task -> task.getId() == id);
         historyManager.remove(id);
+        removeEpicFromIndexes(id);
 
-        for (int subTaskId : epic.getSubTaskIds()) {
-            subTasks.remove(subTaskId);
-            getPrioritizedTasks().removeIf(task -> task.getId() == subTaskId);
+        epic.getSubTaskIds().forEachInt(subTaskId -> {
+            removeFromIndexes(subTasks.remove(subTaskId));
             historyManager.remove(subTaskId);
-        }
+        });
+        touch(CollectionType.EPICS, CollectionType.SUBTASKS, CollectionType.PRIORITIZED, CollectionType.HISTORY);
     }
 
     @Override
     public void deleteSubTaskById(int id) {
         SubTask subtask = subTasks.remove(id);
-        getPrioritizedTasks().remove(subtask);
+        removeFromIndexes(subtask);
         historyManager.remove(id);
         Epic epic = epics.get(subtask.getEpicId());
-        epic.getSubTaskIds().remove(Integer.valueOf(id));
+        epic.removeSubTask(id);
         updateStatus(epic);
+        touch(CollectionType.SUBTASKS, CollectionType.EPICS, CollectionType.PRIORITIZED, CollectionType.HISTORY);
     }
 
     @Override
@@ -184,10 +231,14 @@ public class InMemoryTaskManager implements TaskManager {
         if (epic == null) {
             return Collections.emptyList();
         }
-        return epic.getSubTaskIds().stream()
-                .map(subTasks::get)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        List<SubTask> result = new ArrayList<>(epic.getSubTaskIds().size());
+        epic.getSubTaskIds().forEachInt(subTaskId -> {
+            SubTask subTask = subTasks.get(subTaskId);
+            if (subTask != null) {
+                result.add(subTask);
+            }
+        });
+        return result;
     }
 
     @Override
@@ -197,63 +248,578 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public List<Task> getPrioritizedTasks() {
-        return new ArrayList<>(prioritizedTasks);
+        return snapshot(CollectionType.PRIORITIZED, prioritizedTasks::values);
     }
 
     @Override
     public boolean isTaskOverlapping(Task newTask) {
-        if (newTask.getStartTime() == null || newTask.getDuration() == null) {
-            return false;
+        return timeSlots.hasOverlap(newTask);
+    }
+
+    @Override
+    public List<Task> getOverlappingTasks(Task task) {
+        return timeSlots.findOverlapping(task);
+    }
+
+    @Override
+    public List<Task> getTasks(int afterId, int limit) {
+        return tasks.valuesAfter(afterId, limit);
+    }
+
+    @Override
+    public List<Epic> getEpics(int afterId, int limit) {
+        return epics.valuesAfter(afterId, limit);
+    }
+
+    @Override
+    public List<SubTask> getSubTasks(int afterId, int limit) {
+        return subTasks.valuesAfter(afterId, limit);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime afterStart, int afterId, int limit) {
+        Iterator<Task> iterator;
+        if (afterStart == null) {
+            iterator = prioritizedTasks.values().iterator();
+        } else { // Поиск позиции в дереве по началу и id последней отданной задачи
+            iterator = prioritizedTasks.tailMap(new PriorityKey(afterStart, afterId), false).values().iterator();
         }
 
-        LocalDateTime newStart = newTask.getStartTime();
-        LocalDateTime newEnd = newTask.getEndTime();
+        List<Task> page = new ArrayList<>(Math.min(limit, prioritizedTasks.size()));
+        while (iterator.hasNext() && page.size() < limit) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
 
-        return getPrioritizedTasks().stream()
-                .filter(task -> task.getStartTime() != null && task.getDuration() != null)
-                .anyMatch(existingTask -> {
-                    LocalDateTime existingStart = existingTask.getStartTime();
-                    LocalDateTime existingEnd = existingTask.getEndTime();
+    /* Окно [from, to): задачи, начинающиеся в окне, находятся поиском по дереву приоритетов за O(log n + k).
+       Кроме них в окно попадает задача, начавшаяся раньше from и ещё идущая в from. Такая задача не больше одной:
+       ненулевые интервалы не пересекаются, а задача нулевой длительности ни один момент не покрывает.
+       Окно с from == to пусто. null в границе - окно не ограничено с этой стороны */
+    @Override
+    public List<Task> getTasksInRange(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new IllegalArgumentException("Конец окна раньше его начала");
+        }
+        if (from != null && from.equals(to)) {
+            return List.of();
+        }
 
-                    return newStart.isBefore(existingEnd) && existingStart.isBefore(newEnd);
-                });
+        List<Task> result = new ArrayList<>();
+        NavigableMap<PriorityKey, Task> window = prioritizedTasks;
+        if (from != null) {
+            Task covering = timeSlots.findCovering(from);
+            if (covering != null) {
+                result.add(covering);
+            }
+            window = prioritizedTasks.tailMap(new PriorityKey(from, Integer.MIN_VALUE), true);
+        }
+        for (Map.Entry<PriorityKey, Task> entry : window.entrySet()) {
+            if (to != null && !entry.getKey().start.isBefore(to)) {
+                break;
+            }
+            result.add(entry.getValue());
+        }
+        return result;
     }
 
-    private void addToPrioritizedTasks(Task task) {
-        if (task.getStartTime() != null) {
-            prioritizedTasks.add(task);
+    // Колонка доски: задачи типа type в статусе status в порядке попадания в колонку, O(k)
+    @Override
+    public List<Task> getByStatus(TaskType type, Status status) {
+        IntHashSet ids = statusIndex.ids(type, status);
+        IntObjectHashMap<? extends Task> source = switch (type) {
+            case TASK -> tasks;
+            case EPIC -> epics;
+            case SUBTASK -> subTasks;
+        };
+        List<Task> result = new ArrayList<>(ids.size());
+        ids.forEachInt(id -> result.add(source.get(id)));
+        return result;
+    }
+
+    @Override
+    public int countByStatus(TaskType type, Status status) {
+        return statusIndex.count(type, status);
+    }
+
+    @Override
+    public int countByType(TaskType type) {
+        return switch (type) {
+            case TASK -> tasks.size();
+            case EPIC -> epics.size();
+            case SUBTASK -> subTasks.size();
+        };
+    }
+
+    /* Полнотекстовый поиск по названию и описанию: все слова запроса (как префиксы слов) должны встретиться
+       в задаче. types - в каких коллекциях искать, пустой набор - во всех. Не больше limit задач */
+    @Override
+    public List<Task> search(String query, Set<TaskType> types, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Число результатов должно быть положительным");
+        }
+        boolean all = types == null || types.isEmpty();
+        List<Task> result = new ArrayList<>();
+        for (int id : searchIndex.search(query, limit, id -> all || types.contains(typeOf(id)))) {
+            result.add(findById(id));
         }
+        return result;
     }
 
-    private void updateStatus(Epic epic) {
-        boolean allDone = true;
-        boolean allNew = true;
+    @Override
+    public List<FreeSlot> findFreeSlots(Duration duration, LocalDateTime after, int count) {
+        if (duration == null || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Длительность должна быть положительной");
+        }
+        if (after == null || count <= 0) {
+            throw new IllegalArgumentException("Нужны момент начала поиска и положительное число промежутков");
+        }
+        return timeSlots.findFreeSlots(duration, after, count);
+    }
 
-        if (epic.getSubTaskIds().isEmpty()) {
-            epic.setStatus(Status.NEW);
-            return;
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        return historyManager.getHistory(offset, limit);
+    }
+
+    @Override
+    public int getHistorySize() {
+        return historyManager.size();
+    }
+
+    @Override
+    public BatchResult addTasks(List<Task> batch) {
+        BatchResult result = new BatchResult(batch.size());
+        boolean[] accepted = new boolean[batch.size()];
+        Arrays.fill(accepted, true);
+        validateSchedule(batch, accepted, result, "Задача пересекается по времени с существующей");
+
+        for (int i = 0; i < batch.size(); i++) { // id выдаются в порядке пакета
+            if (accepted[i]) {
+                Task task = batch.get(i);
+                task.setId(addId());
+                tasks.put(task.getId(), task);
+                addToIndexes(task);
+                result.applied(i, task);
+            }
         }
+        touch(CollectionType.TASKS, CollectionType.PRIORITIZED);
+        return result;
+    }
 
-        for (int subTaskId : epic.getSubTaskIds()) {
-            SubTask subtask = subTasks.get(subTaskId);
-            if (subtask.getStatus() != Status.DONE) {
-                allDone = false;
+    @Override
+    public BatchResult addSubTasks(List<SubTask> batch) {
+        BatchResult result = new BatchResult(batch.size());
+        boolean[] accepted = new boolean[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            accepted[i] = epics.containsKey(batch.get(i).getEpicId());
+            if (!accepted[i]) {
+                result.rejected(i, BatchError.NOT_FOUND, "Эпик подзадачи не найден");
             }
-            if (subtask.getStatus() != Status.NEW) {
-                allNew = false;
+        }
+        validateSchedule(batch, accepted, result, "Подзадача пересекается по времени с существующей");
+
+        Set<Epic> affectedEpics = new LinkedHashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (accepted[i]) {
+                SubTask subTask = batch.get(i);
+                subTask.setId(addId());
+                subTasks.put(subTask.getId(), subTask);
+                Epic epic = epics.get(subTask.getEpicId());
+                epic.addSubTask(subTask);
+                affectedEpics.add(epic);
+                addToIndexes(subTask);
+                result.applied(i, subTask);
             }
         }
+        affectedEpics.forEach(this::updateStatus); // Один пересчёт на эпик, а не на подзадачу
+        touch(CollectionType.SUBTASKS, CollectionType.EPICS, CollectionType.PRIORITIZED);
+        return result;
+    }
 
-        if (allDone) {
-            epic.setStatus(Status.DONE);
-        } else if (allNew) {
+    @Override
+    public BatchResult updateSubTasks(List<SubTask> batch) {
+        BatchResult result = new BatchResult(batch.size());
+        boolean[] accepted = new boolean[batch.size()];
+        boolean[] detached = new boolean[batch.size()]; // Прежний интервал снят с индекса на время проверки
+        for (int i = 0; i < batch.size(); i++) {
+            SubTask subTask = batch.get(i);
+            if (!subTasks.containsKey(subTask.getId())) {
+                result.rejected(i, BatchError.NOT_FOUND, "Подзадачи не существует");
+            } else if (!epics.containsKey(subTask.getEpicId())) {
+                result.rejected(i, BatchError.NOT_FOUND, "Эпик подзадачи не найден");
+            } else {
+                accepted[i] = true;
+                detached[i] = true;
+                timeSlots.remove(subTask.getId()); // Прежнее время подзадач пакета не должно мешать новому
+            }
+        }
+        String message = "Обновленная подзадача пересекается по времени с существующей";
+        validateSchedule(batch, accepted, result, message);
+
+        // Отклонённые подзадачи остаются на прежнем времени, которое могли занять принятые - перепроверяем их
+        boolean restored = true;
+        while (restored) {
+            restored = false;
+            for (int i = 0; i < batch.size(); i++) {
+                if (!accepted[i] && detached[i]) {
+                    timeSlots.add(subTasks.get(batch.get(i).getId()));
+                    detached[i] = false;
+                    restored = true;
+                }
+            }
+            for (int i = 0; restored && i < batch.size(); i++) {
+                if (accepted[i] && timeSlots.hasOverlap(batch.get(i))) {
+                    accepted[i] = false;
+                    result.rejected(i, BatchError.OVERLAP, message);
+                }
+            }
+        }
+
+        Set<Epic> affectedEpics = new LinkedHashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (!accepted[i]) {
+                continue;
+            }
+            SubTask subTask = batch.get(i);
+            SubTask existingSubTask = subTasks.put(subTask.getId(), subTask);
+            removeFromIndexes(existingSubTask);
+            if (existingSubTask.getEpicId() != subTask.getEpicId()) {
+                Epic previousEpic = epics.get(existingSubTask.getEpicId());
+                if (previousEpic != null) {
+                    previousEpic.removeSubTask(subTask.getId());
+                    affectedEpics.add(previousEpic);
+                }
+            }
+            Epic epic = epics.get(subTask.getEpicId());
+            epic.addSubTask(subTask);
+            affectedEpics.add(epic);
+            addToIndexes(subTask);
+            result.applied(i, subTask);
+        }
+        affectedEpics.forEach(this::updateStatus);
+        touch(CollectionType.SUBTASKS, CollectionType.EPICS, CollectionType.PRIORITIZED);
+        return result;
+    }
+
+    @Override
+    public BatchResult deleteByIds(List<Integer> ids) {
+        BatchResult result = new BatchResult(ids.size());
+        Set<Epic> affectedEpics = new LinkedHashSet<>();
+
+        for (int i = 0; i < ids.size(); i++) {
+            int id = ids.get(i);
+            Task removed = tasks.remove(id);
+            if (removed == null) {
+                removed = epics.remove(id);
+                if (removed != null) {
+                    removeEpicFromIndexes(id);
+                    ((Epic) removed).getSubTaskIds().forEachInt(subTaskId -> {
+                        removeFromIndexes(subTasks.remove(subTaskId));
+                        historyManager.remove(subTaskId);
+                    });
+                }
+            }
+            if (removed == null) {
+                removed = subTasks.remove(id);
+                if (removed != null) {
+                    Epic epic = epics.get(((SubTask) removed).getEpicId());
+                    if (epic != null) {
+                        epic.removeSubTask(id);
+                        affectedEpics.add(epic);
+                    }
+                }
+            }
+
+            if (removed == null) {
+                result.rejected(i, BatchError.NOT_FOUND, "Задачи не существует");
+                continue;
+            }
+            removeFromIndexes(removed);
+            historyManager.remove(id);
+            result.applied(i, removed);
+        }
+        affectedEpics.stream().filter(epic -> epics.containsKey(epic.getId())).forEach(this::updateStatus);
+        touch(CollectionType.TASKS, CollectionType.EPICS, CollectionType.SUBTASKS, CollectionType.PRIORITIZED,
+                CollectionType.HISTORY);
+        return result;
+    }
+
+    /* Автоматическое планирование: задачи и подзадачи без времени начала раскладываются по свободным
+       промежуткам окна [from, to) жадно, в порядке ids (порядок задаёт приоритет). Без ids планируются все
+       задачи и подзадачи без времени начала с длительностью, по возрастанию id. При dryRun менеджер
+       не меняется, назначенное время возвращается только в итоге */
+    @Override
+    public ScheduleResult scheduleTasks(List<Integer> ids, LocalDateTime from, LocalDateTime to, boolean dryRun) {
+        if (from == null || (to != null && !from.isBefore(to))) {
+            throw new IllegalArgumentException("Горизонт планирования должен начинаться раньше, чем заканчиваться");
+        }
+        List<Task> candidates = new ArrayList<>();
+        // Повтор id отклоняется заранее: иначе пробный запуск разложил бы задачу дважды, а настоящий - нет
+        IntHashSet repeated = new IntHashSet();
+        if (ids == null || ids.isEmpty()) {
+            tasks.values().stream().filter(this::isSchedulable).forEach(candidates::add);
+            subTasks.values().stream().filter(this::isSchedulable).forEach(candidates::add);
+            candidates.sort(Comparator.comparingInt(Task::getId));
+        } else {
+            IntHashSet seen = new IntHashSet();
+            for (int id : ids) {
+                if (!seen.add(id)) {
+                    repeated.add(candidates.size());
+                }
+                Task task = tasks.get(id);
+                candidates.add(task != null ? task : subTasks.get(id));
+            }
+        }
+
+        ScheduleResult result = new ScheduleResult(candidates.size(), dryRun);
+        TaskScheduler scheduler = new TaskScheduler(timeSlots.findFreeSlots(from, to));
+        Set<Epic> affectedEpics = new LinkedHashSet<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            Task task = candidates.get(i);
+            if (repeated.contains(i)) {
+                result.rejected(i, BatchError.INVALID, "Задача уже указана в запросе");
+                continue;
+            }
+            if (task == null) {
+                result.rejected(i, BatchError.NOT_FOUND, "Задачи или подзадачи не существует");
+                continue;
+            }
+            if (!isSchedulable(task)) {
+                result.rejected(i, BatchError.INVALID, "Задача уже запланирована или у неё нет длительности");
+                continue;
+            }
+            LocalDateTime start = scheduler.place(task.getDuration());
+            if (start == null) {
+                result.rejected(i, BatchError.NO_FREE_SLOT, "Нет свободного времени в горизонте планирования");
+                continue;
+            }
+            result.scheduled(i, task, start);
+            if (!dryRun) {
+                task.setStartTime(start);
+                addToIndexes(task);
+                if (task instanceof SubTask subTask) {
+                    Epic epic = epics.get(subTask.getEpicId());
+                    if (epic != null) {
+                        epic.updateSubTask(subTask);
+                        affectedEpics.add(epic);
+                    }
+                }
+            }
+        }
+        affectedEpics.forEach(this::updateStatus); // Время эпика сдвинулось вместе с его подзадачами
+        if (!dryRun && result.getErrorCount() < candidates.size()) {
+            touch(CollectionType.TASKS, CollectionType.SUBTASKS, CollectionType.EPICS, CollectionType.PRIORITIZED);
+        }
+        return result;
+    }
+
+    @Override
+    public long getVersion(CollectionType collection) {
+        return versions.get(collection.ordinal());
+    }
+
+    @Override
+    public void addChangeListener(TaskChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    // Восстанавливает задачу с уже назначенным id без проверок (используется при загрузке из файла)
+    protected void restoreTask(Task task) {
+        switch (task.getType()) {
+            case TASK:
+                tasks.put(task.getId(), task);
+                addToIndexes(task);
+                break;
+            case EPIC:
+                epics.put(task.getId(), (Epic) task);
+                addEpicToIndexes((Epic) task);
+                break;
+            case SUBTASK:
+                SubTask subTask = (SubTask) task;
+                subTasks.put(subTask.getId(), subTask);
+                Epic epic = epics.get(subTask.getEpicId());
+                if (epic != null) {
+                    epic.addSubTask(subTask);
+                }
+                addToIndexes(subTask);
+                break;
+        }
+        if (task.getId() >= counter) {
+            counter = task.getId() + 1;
+        }
+        touch(CollectionType.TASKS, CollectionType.EPICS, CollectionType.SUBTASKS, CollectionType.PRIORITIZED);
+    }
+
+    protected void updateEpicStatuses() { // Пересчитывает статусы всех эпиков по их подзадачам
+        epics.values().forEach(this::updateStatus);
+        touch(CollectionType.EPICS);
+    }
+
+    /* Проверка пакета на пересечения за один проход в порядке времени начала. Принятые задачи пакета
+       не пересекаются между собой, поэтому очередную достаточно сравнить с концом последней принятой,
+       а с задачами менеджера - через индекс интервалов за O(log n). Весь пакет - O(k log k + k log n).
+       accepted: на входе - элементы, прошедшие прочие проверки, на выходе - ещё и проверку времени */
+    private void validateSchedule(List<? extends Task> batch, boolean[] accepted, BatchResult result,
+                                  String message) {
+        List<Integer> scheduled = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Task task = batch.get(i);
+            if (accepted[i] && task.getStartTime() != null && task.getDuration() != null) {
+                scheduled.add(i);
+            }
+        }
+        // При равных началах нулевая задача идёт первой, как в индексе интервалов: иначе её отклонил бы конец
+        // длинной задачи, хотя добавленная отдельно она ни с чем не пересекается
+        scheduled.sort(Comparator.comparing((Integer index) -> batch.get(index).getStartTime())
+                .thenComparing(index -> batch.get(index).getEndTime())
+                .thenComparingInt(index -> index));
+
+        LocalDateTime lastEnd = null;
+        for (int index : scheduled) {
+            Task task = batch.get(index);
+            if (lastEnd != null && task.getStartTime().isBefore(lastEnd)) {
+                accepted[index] = false;
+                result.rejected(index, BatchError.OVERLAP, message + " из того же пакета");
+            } else if (timeSlots.hasOverlap(task)) {
+                accepted[index] = false;
+                result.rejected(index, BatchError.OVERLAP, message);
+            } else {
+                lastEnd = task.getEndTime();
+            }
+        }
+    }
+
+    /* Увеличивает версии изменённых коллекций. Просмотр по id меняет историю и под блокировкой чтения
+       ConcurrentTaskManager, поэтому версии атомарные */
+    private void touch(CollectionType... changed) {
+        for (CollectionType collection : changed) {
+            versions.incrementAndGet(collection.ordinal());
+        }
+    }
+
+    private Task findById(int id) { // Поиск без записи в историю просмотров
+        Task task = tasks.get(id);
+        if (task == null) {
+            task = epics.get(id);
+        }
+        return task != null ? task : subTasks.get(id);
+    }
+
+    private TaskType typeOf(int id) {
+        Task task = findById(id);
+        return task == null ? null : task.getType();
+    }
+
+    private boolean isSchedulable(Task task) { // Без времени начала, но с длительностью
+        return task.getStartTime() == null && task.getDuration() != null && task.getDuration().isPositive();
+    }
+
+    /* Полный список коллекции без копирования на каждый запрос: снимок собирается один раз после изменения
+       и отдаётся всем читателям, пока версия коллекции не изменится. Версия читается до сборки, поэтому
+       снимок, собранный параллельно с изменением, получит старую версию и будет пересобран */
+    @SuppressWarnings("unchecked")
+    private <T> List<T> snapshot(CollectionType collection, Supplier<Collection<? extends T>> source) {
+        long version = versions.get(collection.ordinal());
+        Snapshot cached = snapshots.get(collection.ordinal());
+        if (cached != null && cached.version == version) {
+            return (List<T>) cached.items;
+        }
+        List<T> items = List.copyOf(source.get());
+        snapshots.set(collection.ordinal(), new Snapshot(version, items));
+        return items;
+    }
+
+    private void checkOverlapping(Task task, String message) {
+        if (timeSlots.hasOverlap(task)) {
+            throw new TaskOverlapException(message, task, timeSlots.findOverlapping(task));
+        }
+    }
+
+    private void addToIndexes(Task task) { // Индексы задач и подзадач: приоритет, интервалы и статус
+        if (task.getStartTime() != null) {
+            PriorityKey key = new PriorityKey(task.getStartTime(), task.getId());
+            PriorityKey previous = priorityKeys.put(key.id, key);
+            if (previous != null) { // Повторная индексация без удаления не должна оставлять прежний узел
+                prioritizedTasks.remove(previous);
+            }
+            prioritizedTasks.put(key, task);
+            timeSlots.add(task);
+        }
+        statusIndex.update(task);
+        searchIndex.update(task);
+        notifyChanged(task.getId());
+    }
+
+    private void removeFromIndexes(Task task) {
+        if (task != null) {
+            PriorityKey key = priorityKeys.remove(task.getId());
+            if (key != null) {
+                prioritizedTasks.remove(key);
+            }
+            timeSlots.remove(task.getId());
+            statusIndex.remove(task.getId());
+            searchIndex.remove(task.getId());
+            notifyChanged(task.getId());
+        }
+    }
+
+    private void addEpicToIndexes(Epic epic) { // У эпика нет своего времени, он есть только в индексах статуса и поиска
+        statusIndex.update(epic);
+        searchIndex.update(epic);
+        notifyChanged(epic.getId());
+    }
+
+    private void removeEpicFromIndexes(int id) {
+        statusIndex.remove(id);
+        searchIndex.remove(id);
+        notifyChanged(id);
+    }
+
+    private void updateStatus(Epic epic) { // Статус по счётчикам подзадач эпика, без обхода самих подзадач
+        int total = epic.getSubTaskCount();
+
+        if (total == 0 || epic.getSubTaskCount(Status.NEW) == total) {
             epic.setStatus(Status.NEW);
+        } else if (epic.getSubTaskCount(Status.DONE) == total) {
+            epic.setStatus(Status.DONE);
         } else {
             epic.setStatus(Status.IN_PROGRESS);
         }
+        statusIndex.update(epic);
+        notifyChanged(epic.getId()); // Эпик меняется на месте: статус и список подзадач
+        touch(CollectionType.EPICS, CollectionType.HISTORY); // Тот же объект может лежать в истории просмотров
+    }
+
+    /* Все изменения проходят через обновление индексов и пересчёт статуса эпика, поэтому слушатели узнают
+       о каждом изменённом id оттуда, а не из каждого изменяющего метода */
+    private void notifyChanged(int id) {
+        for (TaskChangeListener listener : listeners) {
+            listener.taskChanged(id);
+        }
     }
 
     private int addId() {
         return counter++;
     }
-}
\ No newline at end of file
+
+    private static class PriorityKey {
+        final LocalDateTime start;
+        final int id;
+
+        PriorityKey(LocalDateTime start, int id) {
+            this.start = start;
+            this.id = id;
+        }
+    }
+
+    private static class Snapshot {
+        final long version;
+        final List<?> items;
+
+        Snapshot(long version, List<?> items) {
+            this.version = version;
+            this.items = items;
+        }
+    }
+}
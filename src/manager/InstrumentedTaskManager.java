@@ -0,0 +1,346 @@
+package manager;
+
+import metrics.Histogram;
+import metrics.MetricsRegistry;
+import task.Epic;
+import task.SubTask;
+import task.Task;
+import tools.CollectionType;
+import tools.Status;
+import tools.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/* Обёртка над менеджером задач, замеряющая длительность каждой операции в гистограмме
+   taskmanager_operation_seconds с меткой op. Для потокобезопасного менеджера время включает ожидание
+   блокировки - это и есть задержка, которую видит клиент. Размеры коллекций и истории выдаются показателями,
+   которые вычисляются при чтении метрик */
+public class InstrumentedTaskManager implements TaskManager {
+    private static final String OPERATION_METRIC = "taskmanager_operation_seconds";
+
+    private final TaskManager delegate;
+    private final MetricsRegistry registry;
+    private final Histogram getAllTasks;
+    private final Histogram getAllEpics;
+    private final Histogram getAllSubTasks;
+    private final Histogram deleteAllTasks;
+    private final Histogram deleteAllEpics;
+    private final Histogram deleteAllSubTasks;
+    private final Histogram getTaskById;
+    private final Histogram getEpicById;
+    private final Histogram getSubTaskById;
+    private final Histogram addTask;
+    private final Histogram addEpic;
+    private final Histogram addSubTask;
+    private final Histogram updateTask;
+    private final Histogram updateEpic;
+    private final Histogram updateSubTask;
+    private final Histogram deleteTaskById;
+    private final Histogram deleteEpicById;
+    private final Histogram deleteSubTaskById;
+    private final Histogram getSubTasksByEpicId;
+    private final Histogram getHistory;
+    private final Histogram getPrioritizedTasks;
+    private final Histogram isTaskOverlapping;
+    private final Histogram getOverlappingTasks;
+    private final Histogram getTasks;
+    private final Histogram getEpics;
+    private final Histogram getSubTasks;
+    private final Histogram getPrioritizedTasksPage;
+    private final Histogram getHistoryPage;
+    private final Histogram getTasksInRange;
+    private final Histogram getByStatus;
+    private final Histogram countByStatus;
+    private final Histogram search;
+    private final Histogram findFreeSlots;
+    private final Histogram scheduleTasks;
+    private final Histogram addTasks;
+    private final Histogram addSubTasks;
+    private final Histogram updateSubTasks;
+    private final Histogram deleteByIds;
+
+    public InstrumentedTaskManager(TaskManager delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.registry = registry;
+        getAllTasks = operation("getAllTasks");
+        getAllEpics = operation("getAllEpics");
+        getAllSubTasks = operation("getAllSubTasks");
+        deleteAllTasks = operation("deleteAllTasks");
+        deleteAllEpics = operation("deleteAllEpics");
+        deleteAllSubTasks = operation("deleteAllSubTasks");
+        getTaskById = operation("getTaskById");
+        getEpicById = operation("getEpicById");
+        getSubTaskById = operation("getSubTaskById");
+        addTask = operation("addTask");
+        addEpic = operation("addEpic");
+        addSubTask = operation("addSubTask");
+        updateTask = operation("updateTask");
+        updateEpic = operation("updateEpic");
+        updateSubTask = operation("updateSubTask");
+        deleteTaskById = operation("deleteTaskById");
+        deleteEpicById = operation("deleteEpicById");
+        deleteSubTaskById = operation("deleteSubTaskById");
+        getSubTasksByEpicId = operation("getSubTasksByEpicId");
+        getHistory = operation("getHistory");
+        getPrioritizedTasks = operation("getPrioritizedTasks");
+        isTaskOverlapping = operation("isTaskOverlapping");
+        getOverlappingTasks = operation("getOverlappingTasks");
+        getTasks = operation("getTasks");
+        getEpics = operation("getEpics");
+        getSubTasks = operation("getSubTasks");
+        getPrioritizedTasksPage = operation("getPrioritizedTasksPage");
+        getHistoryPage = operation("getHistoryPage");
+        getTasksInRange = operation("getTasksInRange");
+        getByStatus = operation("getByStatus");
+        countByStatus = operation("countByStatus");
+        search = operation("search");
+        findFreeSlots = operation("findFreeSlots");
+        scheduleTasks = operation("scheduleTasks");
+        addTasks = operation("addTasks");
+        addSubTasks = operation("addSubTasks");
+        updateSubTasks = operation("updateSubTasks");
+        deleteByIds = operation("deleteByIds");
+
+        for (TaskType type : TaskType.values()) { // Размеры коллекций читаются за O(1), без сборки списков
+            registry.gauge("taskmanager_tasks", "Число задач по типам", () -> delegate.countByType(type),
+                    "type", type.name());
+        }
+        registry.gauge("taskmanager_history_size", "Число задач в истории просмотров", delegate::getHistorySize);
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return timed(getAllTasks, delegate::getAllTasks);
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return timed(getAllEpics, delegate::getAllEpics);
+    }
+
+    @Override
+    public List<SubTask> getAllSubTasks() {
+        return timed(getAllSubTasks, delegate::getAllSubTasks);
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        timed(deleteAllTasks, delegate::deleteAllTasks);
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        timed(deleteAllEpics, delegate::deleteAllEpics);
+    }
+
+    @Override
+    public void deleteAllSubTasks() {
+        timed(deleteAllSubTasks, delegate::deleteAllSubTasks);
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return timed(getTaskById, () -> delegate.getTaskById(id));
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        return timed(getEpicById, () -> delegate.getEpicById(id));
+    }
+
+    @Override
+    public SubTask getSubTaskById(int id) {
+        return timed(getSubTaskById, () -> delegate.getSubTaskById(id));
+    }
+
+    @Override
+    public void addTask(Task task) {
+        timed(addTask, () -> delegate.addTask(task));
+    }
+
+    @Override
+    public void addEpic(Epic epic) {
+        timed(addEpic, () -> delegate.addEpic(epic));
+    }
+
+    @Override
+    public void addSubTask(SubTask subtask) {
+        timed(addSubTask, () -> delegate.addSubTask(subtask));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        timed(updateTask, () -> delegate.updateTask(task));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        timed(updateEpic, () -> delegate.updateEpic(epic));
+    }
+
+    @Override
+    public void updateSubTask(SubTask subtask) {
+        timed(updateSubTask, () -> delegate.updateSubTask(subtask));
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        timed(deleteTaskById, () -> delegate.deleteTaskById(id));
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        timed(deleteEpicById, () -> delegate.deleteEpicById(id));
+    }
+
+    @Override
+    public void deleteSubTaskById(int id) {
+        timed(deleteSubTaskById, () -> delegate.deleteSubTaskById(id));
+    }
+
+    @Override
+    public List<SubTask> getSubTasksByEpicId(int epicId) {
+        return timed(getSubTasksByEpicId, () -> delegate.getSubTasksByEpicId(epicId));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return timed(getHistory, () -> delegate.getHistory());
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return timed(getPrioritizedTasks, () -> delegate.getPrioritizedTasks());
+    }
+
+    @Override
+    public boolean isTaskOverlapping(Task task) {
+        return timed(isTaskOverlapping, () -> delegate.isTaskOverlapping(task));
+    }
+
+    @Override
+    public List<Task> getOverlappingTasks(Task task) {
+        return timed(getOverlappingTasks, () -> delegate.getOverlappingTasks(task));
+    }
+
+    @Override
+    public List<Task> getTasks(int afterId, int limit) {
+        return timed(getTasks, () -> delegate.getTasks(afterId, limit));
+    }
+
+    @Override
+    public List<Epic> getEpics(int afterId, int limit) {
+        return timed(getEpics, () -> delegate.getEpics(afterId, limit));
+    }
+
+    @Override
+    public List<SubTask> getSubTasks(int afterId, int limit) {
+        return timed(getSubTasks, () -> delegate.getSubTasks(afterId, limit));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime afterStart, int afterId, int limit) {
+        return timed(getPrioritizedTasksPage, () -> delegate.getPrioritizedTasks(afterStart, afterId, limit));
+    }
+
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        return timed(getHistoryPage, () -> delegate.getHistory(offset, limit));
+    }
+
+    @Override
+    public int getHistorySize() { // Нужен только показателю истории, поэтому не замеряется
+        return delegate.getHistorySize();
+    }
+
+    @Override
+    public List<Task> getTasksInRange(LocalDateTime from, LocalDateTime to) {
+        return timed(getTasksInRange, () -> delegate.getTasksInRange(from, to));
+    }
+
+    @Override
+    public List<Task> getByStatus(TaskType type, Status status) {
+        return timed(getByStatus, () -> delegate.getByStatus(type, status));
+    }
+
+    @Override
+    public int countByStatus(TaskType type, Status status) {
+        return timed(countByStatus, () -> delegate.countByStatus(type, status));
+    }
+
+    @Override
+    public int countByType(TaskType type) { // Нужен только показателям размеров, поэтому не замеряется
+        return delegate.countByType(type);
+    }
+
+    @Override
+    public List<Task> search(String query, Set<TaskType> types, int limit) {
+        return timed(search, () -> delegate.search(query, types, limit));
+    }
+
+    @Override
+    public List<FreeSlot> findFreeSlots(Duration duration, LocalDateTime after, int count) {
+        return timed(findFreeSlots, () -> delegate.findFreeSlots(duration, after, count));
+    }
+
+    @Override
+    public ScheduleResult scheduleTasks(List<Integer> ids, LocalDateTime from, LocalDateTime to, boolean dryRun) {
+        return timed(scheduleTasks, () -> delegate.scheduleTasks(ids, from, to, dryRun));
+    }
+
+    @Override
+    public BatchResult addTasks(List<Task> tasks) {
+        return timed(addTasks, () -> delegate.addTasks(tasks));
+    }
+
+    @Override
+    public BatchResult addSubTasks(List<SubTask> subtasks) {
+        return timed(addSubTasks, () -> delegate.addSubTasks(subtasks));
+    }
+
+    @Override
+    public BatchResult updateSubTasks(List<SubTask> subtasks) {
+        return timed(updateSubTasks, () -> delegate.updateSubTasks(subtasks));
+    }
+
+    @Override
+    public BatchResult deleteByIds(List<Integer> ids) {
+        return timed(deleteByIds, () -> delegate.deleteByIds(ids));
+    }
+
+    @Override
+    public long getVersion(CollectionType collection) { // Чтение атомарного счётчика, замер дороже самой операции
+        return delegate.getVersion(collection);
+    }
+
+    @Override
+    public void addChangeListener(TaskChangeListener listener) {
+        delegate.addChangeListener(listener);
+    }
+
+    private Histogram operation(String name) {
+        return registry.histogram(OPERATION_METRIC, "Длительность операций менеджера задач", "op", name);
+    }
+
+    private static <T> T timed(Histogram histogram, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            histogram.recordSince(start);
+        }
+    }
+
+    private static void timed(Histogram histogram, Runnable action) {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            histogram.recordSince(start);
+        }
+    }
+}
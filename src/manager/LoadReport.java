@@ -0,0 +1,43 @@
+package manager;
+
+import java.time.Duration;
+
+public class LoadReport { // Статистика загрузки менеджера из файла
+    static final LoadReport EMPTY = new LoadReport(0, 0, 0);
+
+    private final long rows;
+    private final long bytes;
+    private final long nanos;
+
+    LoadReport(long rows, long bytes, long nanos) {
+        this.rows = rows;
+        this.bytes = bytes;
+        this.nanos = nanos;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public Duration getDuration() {
+        return Duration.ofNanos(nanos);
+    }
+
+    public double getRowsPerSecond() {
+        return nanos == 0 ? 0 : rows * 1_000_000_000.0 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadReport{" +
+                "rows=" + rows +
+                ", bytes=" + bytes +
+                ", duration=" + getDuration() +
+                ", rowsPerSecond=" + Math.round(getRowsPerSecond()) +
+                '}';
+    }
+}
@@ -1,11 +1,21 @@
 package manager;
 
 public class Managers {
+    private static final int CONCURRENT_HISTORY_SIZE = 10_000;
+
     public static TaskManager getDefault() {
         return new InMemoryTaskManager();
     }
 
+    public static TaskManager getConcurrent() { // Менеджер для обработки запросов из нескольких потоков
+        return new ConcurrentTaskManager(new InMemoryTaskManager(getConcurrentHistory(CONCURRENT_HISTORY_SIZE)));
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
+
+    public static HistoryManager getConcurrentHistory(int maxSize) { // Хранит не больше maxSize последних просмотров
+        return new ConcurrentHistoryManager(maxSize);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package manager;
+
+import task.Task;
+
+import java.time.LocalDateTime;
+
+/* Итог автоматического планирования: для каждой задачи - назначенное время начала или причина отказа.
+   При пробном запуске задачи не меняются, время есть только в итоге */
+public class ScheduleResult extends BatchResult {
+    private final LocalDateTime[] startTimes;
+    private final boolean dryRun;
+
+    ScheduleResult(int size, boolean dryRun) {
+        super(size);
+        this.startTimes = new LocalDateTime[size];
+        this.dryRun = dryRun;
+    }
+
+    void scheduled(int index, Task task, LocalDateTime startTime) {
+        applied(index, task);
+        startTimes[index] = startTime;
+    }
+
+    public LocalDateTime getStartTime(int index) {
+        return startTimes[index];
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+}
@@ -0,0 +1,140 @@
+package manager;
+
+import collection.IntHashSet;
+import collection.IntObjectHashMap;
+import task.Task;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+/* Обратный индекс по словам названия и описания задач. Слово - последовательность букв и цифр любого алфавита
+   в нижнем регистре, ё приравнивается к е. Словарь упорядочен, поэтому слова с заданным префиксом - это
+   один отрезок словаря. Для каждого id хранятся его записи словаря: задачи меняются на месте, и прежний текст
+   при обновлении уже не узнать, а удаление из записей идёт без поиска по словарю */
+class SearchIndex {
+    private final NavigableMap<String, Posting> postings = new TreeMap<>();
+    private final IntObjectHashMap<Posting[]> postingsById = new IntObjectHashMap<>();
+
+    void update(Task task) {
+        remove(task.getId());
+        List<String> terms = tokenize(Objects.toString(task.getName(), "") + " "
+                + Objects.toString(task.getDescription(), ""));
+        if (terms.isEmpty()) {
+            return;
+        }
+        Posting[] own = new Posting[terms.size()];
+        for (int i = 0; i < own.length; i++) {
+            own[i] = postings.computeIfAbsent(terms.get(i), Posting::new);
+            own[i].ids.add(task.getId());
+        }
+        postingsById.put(task.getId(), own);
+    }
+
+    void remove(int id) {
+        Posting[] own = postingsById.remove(id);
+        if (own == null) {
+            return;
+        }
+        for (Posting posting : own) {
+            posting.ids.remove(id);
+            if (posting.ids.isEmpty()) {
+                postings.remove(posting.term);
+            }
+        }
+    }
+
+    /* Поиск с семантикой И: каждое слово запроса - префикс слова задачи. Перебираются задачи самого редкого
+       слова запроса, остальные слова проверяются по записям самой задачи, пока не найдено limit задач.
+       accept отбирает id по типу задачи */
+    List<Integer> search(String query, int limit, IntPredicate accept) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        String rarest = null;
+        long rarestSize = Long.MAX_VALUE;
+        for (String token : tokens) {
+            long size = 0;
+            for (Posting posting : withPrefix(token).values()) {
+                size += posting.ids.size();
+            }
+            if (size < rarestSize) {
+                rarest = token;
+                rarestSize = size;
+            }
+        }
+        if (rarestSize == 0) {
+            return List.of();
+        }
+
+        List<Integer> found = new ArrayList<>(Math.min(limit, (int) Math.min(rarestSize, Integer.MAX_VALUE)));
+        Map<String, Posting> candidates = withPrefix(rarest);
+        // Задача может содержать несколько слов с одним префиксом, тогда повторы отсеиваются
+        IntHashSet seen = candidates.size() > 1 ? new IntHashSet() : null;
+        for (Posting posting : candidates.values()) {
+            boolean completed = posting.ids.forEachIntWhile(id -> {
+                if ((seen == null || seen.add(id)) && accept.test(id) && matchesAll(id, tokens)) {
+                    found.add(id);
+                }
+                return found.size() < limit;
+            });
+            if (!completed) {
+                break;
+            }
+        }
+        return found;
+    }
+
+    private boolean matchesAll(int id, List<String> tokens) {
+        Posting[] own = postingsById.get(id);
+        for (String token : tokens) {
+            boolean matched = false;
+            for (Posting posting : own) {
+                if (posting.term.startsWith(token)) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Map<String, Posting> withPrefix(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    static List<String> tokenize(String text) { // Различные слова текста в порядке появления
+        Map<String, Boolean> terms = new LinkedHashMap<>();
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                c = Character.toLowerCase(c);
+                term.append(c == 'ё' ? 'е' : c);
+            } else if (!term.isEmpty()) {
+                terms.put(term.toString(), Boolean.TRUE);
+                term.setLength(0);
+            }
+        }
+        return new ArrayList<>(terms.keySet());
+    }
+
+    private static class Posting { // Слово словаря и id задач, в которых оно встречается
+        final String term;
+        final IntHashSet ids = new IntHashSet();
+
+        Posting(String term) {
+            this.term = term;
+        }
+    }
+}
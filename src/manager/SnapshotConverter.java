@@ -0,0 +1,29 @@
+package manager;
+
+import java.io.File;
+import java.io.IOException;
+
+public class SnapshotConverter {
+    private SnapshotConverter() {
+    }
+
+    // Перезаписывает состояние из source (в любом формате, вместе с журналом) в target в указанном формате
+    public static void convert(File source, File target, SnapshotFormat format) {
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(source);
+        try {
+            manager.exportSnapshot(target.toPath(), format);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при конвертации файла", e);
+        } finally {
+            manager.close();
+        }
+    }
+
+    public static void csvToBinary(File csv, File binary) {
+        convert(csv, binary, SnapshotFormat.BINARY);
+    }
+
+    public static void binaryToCsv(File binary, File csv) {
+        convert(binary, csv, SnapshotFormat.CSV);
+    }
+}
@@ -0,0 +1,6 @@
+package manager;
+
+public enum SnapshotFormat {
+    CSV,   // Текстовый формат, совместимый с прежними версиями
+    BINARY // Компактный двоичный формат с таблицей строк
+}
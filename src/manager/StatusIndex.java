@@ -0,0 +1,60 @@
+package manager;
+
+import collection.IntHashSet;
+import collection.IntObjectHashMap;
+import task.Task;
+import tools.Status;
+import tools.TaskType;
+
+import java.util.EnumMap;
+
+/* Вторичный индекс по статусу: для каждого типа задач и статуса - множество id в порядке попадания в колонку.
+   Для каждого id запоминается множество, в котором он лежит: задачи меняются на месте до вызова update,
+   поэтому прежний статус у самой задачи уже не узнать. Перенос, удаление и подсчёт - O(1) */
+class StatusIndex {
+    private final EnumMap<TaskType, EnumMap<Status, IntHashSet>> buckets = new EnumMap<>(TaskType.class);
+    private final IntObjectHashMap<IntHashSet> bucketById = new IntObjectHashMap<>();
+
+    StatusIndex() {
+        for (TaskType type : TaskType.values()) {
+            EnumMap<Status, IntHashSet> byStatus = new EnumMap<>(Status.class);
+            for (Status status : Status.values()) {
+                byStatus.put(status, new IntHashSet());
+            }
+            buckets.put(type, byStatus);
+        }
+    }
+
+    void update(Task task) { // Задача без статуса в индекс не попадает
+        int id = task.getId();
+        IntHashSet bucket = task.getStatus() == null ? null : buckets.get(task.getType()).get(task.getStatus());
+        IntHashSet previous = bucketById.get(id);
+        if (previous == bucket) { // Статус не изменился - место в колонке сохраняется
+            return;
+        }
+        if (previous != null) {
+            previous.remove(id);
+        }
+        if (bucket == null) {
+            bucketById.remove(id);
+        } else {
+            bucket.add(id);
+            bucketById.put(id, bucket);
+        }
+    }
+
+    void remove(int id) {
+        IntHashSet bucket = bucketById.remove(id);
+        if (bucket != null) {
+            bucket.remove(id);
+        }
+    }
+
+    IntHashSet ids(TaskType type, Status status) {
+        return buckets.get(type).get(status);
+    }
+
+    int count(TaskType type, Status status) {
+        return ids(type, status).size();
+    }
+}
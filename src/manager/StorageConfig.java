@@ -0,0 +1,122 @@
+package manager;
+
+import metrics.MetricsRegistry;
+
+public class StorageConfig {
+    private final StorageMode mode;
+    private final int compactionThreshold;
+    private final int flushOperations;
+    private final long flushIntervalMillis;
+    private final boolean fsync;
+    private final boolean atomicRename;
+    private final SnapshotFormat format;
+    private final MetricsRegistry metrics;
+
+    private StorageConfig(StorageMode mode, int compactionThreshold, int flushOperations, long flushIntervalMillis,
+                          boolean fsync, boolean atomicRename, SnapshotFormat format, MetricsRegistry metrics) {
+        this.mode = mode;
+        this.compactionThreshold = compactionThreshold;
+        this.flushOperations = flushOperations;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.fsync = fsync;
+        this.atomicRename = atomicRename;
+        this.format = format;
+        this.metrics = metrics;
+    }
+
+    public static StorageConfig snapshot() {
+        return new StorageConfig(StorageMode.SNAPSHOT, 0, 1, 0, false, false, SnapshotFormat.CSV, null);
+    }
+
+    // compactionThreshold - число записей в журнале, после которого журнал сворачивается в основной файл
+    public static StorageConfig journal(int compactionThreshold) {
+        if (compactionThreshold <= 0) {
+            throw new IllegalArgumentException("Порог сворачивания журнала должен быть положительным");
+        }
+        return new StorageConfig(StorageMode.JOURNAL, compactionThreshold, 1, 0, false, false, SnapshotFormat.CSV,
+                null);
+    }
+
+    // Сохранять накопленные изменения после каждых operations операций (1 - сразу, в вызывающем потоке)
+    public StorageConfig withFlushEvery(int operations) {
+        if (operations <= 0) {
+            throw new IllegalArgumentException("Число операций должно быть положительным");
+        }
+        return new StorageConfig(mode, compactionThreshold, operations, flushIntervalMillis, fsync, atomicRename,
+                format, metrics);
+    }
+
+    // Сохранять накопленные изменения в фоне не реже, чем раз в millis миллисекунд
+    public StorageConfig withFlushInterval(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Интервал сохранения должен быть положительным");
+        }
+        return new StorageConfig(mode, compactionThreshold, flushOperations, millis, fsync, atomicRename, format,
+                metrics);
+    }
+
+    // Сохранять изменения только при явном вызове flush() или close()
+    public StorageConfig withManualFlush() {
+        return new StorageConfig(mode, compactionThreshold, 0, 0, fsync, atomicRename, format, metrics);
+    }
+
+    // Дожидаться записи данных на диск (FileChannel.force) при каждом сохранении
+    public StorageConfig withFsync(boolean fsync) {
+        return new StorageConfig(mode, compactionThreshold, flushOperations, flushIntervalMillis, fsync, atomicRename,
+                format, metrics);
+    }
+
+    // Записывать основной файл во временный и атомарно переименовывать, чтобы сбой не оставил его недописанным
+    public StorageConfig withAtomicRename(boolean atomicRename) {
+        return new StorageConfig(mode, compactionThreshold, flushOperations, flushIntervalMillis, fsync, atomicRename,
+                format, metrics);
+    }
+
+    // Формат основного файла; загрузка определяет формат по содержимому файла
+    public StorageConfig withFormat(SnapshotFormat format) {
+        return new StorageConfig(mode, compactionThreshold, flushOperations, flushIntervalMillis, fsync, atomicRename,
+                format, metrics);
+    }
+
+    // Реестр для метрик сохранения (длительность, число записей, сворачивания); null - метрики не выдаются
+    public StorageConfig withMetrics(MetricsRegistry metrics) {
+        return new StorageConfig(mode, compactionThreshold, flushOperations, flushIntervalMillis, fsync, atomicRename,
+                format, metrics);
+    }
+
+    public StorageMode getMode() {
+        return mode;
+    }
+
+    public int getCompactionThreshold() {
+        return compactionThreshold;
+    }
+
+    public int getFlushOperations() {
+        return flushOperations;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public boolean isFsync() {
+        return fsync;
+    }
+
+    public boolean isAtomicRename() {
+        return atomicRename;
+    }
+
+    public SnapshotFormat getFormat() {
+        return format;
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    public boolean isSynchronous() { // Каждое изменение сохраняется сразу в вызывающем потоке
+        return flushOperations == 1 && flushIntervalMillis == 0;
+    }
+}
@@ -0,0 +1,6 @@
+package manager;
+
+public enum StorageMode {
+    SNAPSHOT, // После каждого изменения файл перезаписывается целиком
+    JOURNAL   // Изменения дописываются в журнал, который периодически сворачивается в файл
+}
@@ -0,0 +1,9 @@
+package manager;
+
+/* Получает id задачи, эпика или подзадачи, которые менеджер добавил, изменил или удалил.
+   Вызывается внутри изменения, уже после него, в потоке изменяющего (для ConcurrentTaskManager -
+   под блокировкой записи), поэтому должен быть быстрым и не обращаться к менеджеру */
+@FunctionalInterface
+public interface TaskChangeListener {
+    void taskChanged(int id);
+}
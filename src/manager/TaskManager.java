@@ -3,11 +3,18 @@ package manager;
 import task.Epic;
 import task.SubTask;
 import task.Task;
+import tools.CollectionType;
+import tools.Status;
+import tools.TaskType;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 public interface TaskManager {
 
+    // Полные списки и getPrioritizedTasks() - неизменяемые снимки, общие для всех читателей до следующего изменения
     List<Task> getAllTasks();
 
     List<Epic> getAllEpics();
@@ -51,4 +58,58 @@ public interface TaskManager {
     List<Task> getPrioritizedTasks();
 
     boolean isTaskOverlapping(Task task);
+
+    List<Task> getOverlappingTasks(Task task); // Задачи, с которыми пересекается по времени переданная
+
+    // Постраничное чтение: не больше limit элементов после элемента-курсора, без копирования всей коллекции
+    List<Task> getTasks(int afterId, int limit); // Задачи с id больше afterId по возрастанию id
+
+    List<Epic> getEpics(int afterId, int limit);
+
+    List<SubTask> getSubTasks(int afterId, int limit);
+
+    // Задачи по приоритету после задачи с началом afterStart и id afterId (afterStart == null - с начала)
+    List<Task> getPrioritizedTasks(LocalDateTime afterStart, int afterId, int limit);
+
+    List<Task> getHistory(int offset, int limit);
+
+    int getHistorySize();
+
+    // Задачи и подзадачи, идущие в окне [from, to), по времени начала; null - окно не ограничено с этой стороны
+    List<Task> getTasksInRange(LocalDateTime from, LocalDateTime to);
+
+    // Колонка доски: задачи типа type в статусе status по индексу статусов, O(k); подсчёт - O(1)
+    List<Task> getByStatus(TaskType type, Status status);
+
+    int countByStatus(TaskType type, Status status);
+
+    int countByType(TaskType type); // Размер коллекции за O(1), без сборки списка
+
+    // Поиск по словам названия и описания (И, префиксы) в коллекциях types, пустой набор - во всех
+    List<Task> search(String query, Set<TaskType> types, int limit);
+
+    // До count свободных промежутков не короче duration, начиная с after, - варианты времени при пересечении
+    List<FreeSlot> findFreeSlots(Duration duration, LocalDateTime after, int count);
+
+    /* Раскладывает задачи и подзадачи без времени начала по свободным промежуткам окна [from, to),
+       to == null - без конца. ids задают задачи и их приоритет, null - все незапланированные.
+       dryRun - только рассчитать время, не меняя задачи */
+    ScheduleResult scheduleTasks(List<Integer> ids, LocalDateTime from, LocalDateTime to, boolean dryRun);
+
+    /* Пакетные изменения: пакет проверяется на пересечения за один проход в порядке времени начала,
+       статус каждого затронутого эпика пересчитывается один раз, а файловый менеджер сохраняет пакет целиком.
+       Элементы, не прошедшие проверку, отклоняются по отдельности, причина - в BatchResult */
+    BatchResult addTasks(List<Task> tasks);
+
+    BatchResult addSubTasks(List<SubTask> subtasks);
+
+    BatchResult updateSubTasks(List<SubTask> subtasks);
+
+    BatchResult deleteByIds(List<Integer> ids); // Удаляет задачи, эпики (вместе с подзадачами) и подзадачи
+
+    // Версия коллекции: растёт при каждом её изменении, поэтому совпадение версий означает неизменный список
+    long getVersion(CollectionType collection);
+
+    // Слушатель узнаёт id каждой добавленной, изменённой или удалённой задачи (например, для сброса кэшей)
+    void addChangeListener(TaskChangeListener listener);
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package manager;
+
+import task.Task;
+
+import java.util.List;
+
+public class TaskOverlapException extends ManagerSaveException {
+    private static final long serialVersionUID = 1L;
+
+    // Задачи не сериализуются: исключение нужно только внутри процесса, после десериализации поля пусты
+    private final transient Task task;
+    private final transient List<Task> conflicts;
+
+    public TaskOverlapException(String message, List<Task> conflicts) {
+        this(message, null, conflicts);
+    }
+
+    public TaskOverlapException(String message, Task task, List<Task> conflicts) {
+        super(message);
+        this.task = task;
+        this.conflicts = List.copyOf(conflicts);
+    }
+
+    public Task getTask() { // Отклонённая задача, по её длительности можно подобрать свободное время
+        return task;
+    }
+
+    public List<Task> getConflicts() { // Задачи, с которыми пересекается добавляемая или обновляемая задача
+        return conflicts;
+    }
+}
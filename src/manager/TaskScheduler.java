@@ -0,0 +1,57 @@
+package manager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/* Жадная раскладка задач без времени по свободным промежуткам расписания (first fit): задачи идут в порядке
+   приоритета, и каждая ставится в начало самого раннего промежутка, где помещается. Дерево отрезков хранит
+   максимум свободного времени в поддеревьях, поэтому самый ранний подходящий промежуток находится спуском
+   от корня за O(log g). Вся раскладка - O(g + n log g), где g - число промежутков, n - число задач.
+   Промежутки берутся из расписания и не пересекаются с задачами, поэтому раскладка сохраняет их непересечение */
+class TaskScheduler {
+    private final LocalDateTime[] gapStarts; // Начало ещё свободной части каждого промежутка
+    private final long[] tree; // Свободные секунды: листья - промежутки, узлы - максимум по поддереву
+    private final int leaves;
+
+    TaskScheduler(List<FreeSlot> gaps) {
+        int leaves = 1;
+        while (leaves < gaps.size()) {
+            leaves <<= 1;
+        }
+        this.leaves = leaves;
+        this.tree = new long[2 * leaves];
+        this.gapStarts = new LocalDateTime[gaps.size()];
+
+        for (int i = 0; i < gaps.size(); i++) {
+            FreeSlot gap = gaps.get(i);
+            gapStarts[i] = gap.getStart();
+            tree[leaves + i] = gap.getEnd() == null ? Long.MAX_VALUE
+                    : Duration.between(gap.getStart(), gap.getEnd()).toSeconds();
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    LocalDateTime place(Duration duration) { // Время начала для задачи или null, если ни один промежуток не подходит
+        long need = duration.toSeconds() + (duration.getNano() > 0 ? 1 : 0);
+        if (tree[1] < need) {
+            return null;
+        }
+
+        int node = 1;
+        while (node < leaves) { // Левое поддерево - более ранние промежутки
+            node = tree[2 * node] >= need ? 2 * node : 2 * node + 1;
+        }
+        int gap = node - leaves;
+        LocalDateTime start = gapStarts[gap];
+        gapStarts[gap] = start.plusSeconds(need);
+
+        tree[node] = tree[node] == Long.MAX_VALUE ? Long.MAX_VALUE : tree[node] - need;
+        for (node >>= 1; node > 0; node >>= 1) {
+            tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+        }
+        return start;
+    }
+}
@@ -0,0 +1,166 @@
+package manager;
+
+import collection.IntObjectHashMap;
+import task.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/* Индекс временных интервалов задач, упорядоченный по времени начала, затем по концу.
+   В индекс попадают только задачи с заданными startTime и duration. Менеджер не допускает пересечений,
+   поэтому интервалы в индексе не пересекаются и их концы не убывают вместе с началами: для проверки достаточно
+   найти последний интервал, начинающийся раньше конца нового, и идти назад, пока интервалы заканчиваются
+   позже начала нового. Это O(log n + k), где k - число найденных пересечений.
+   Нулевой интервал ни с чем не пересекается, если стоит в начале другого, поэтому порядок по концу при равных
+   началах обязателен: иначе нулевой интервал после длинного оборвал бы обход раньше времени */
+class TimeSlotIndex {
+    private final NavigableSet<Slot> slots = new TreeSet<>(
+            Comparator.comparing((Slot slot) -> slot.start)
+                    .thenComparing(slot -> slot.end)
+                    .thenComparingInt(slot -> slot.id));
+    private final IntObjectHashMap<Slot> slotsById = new IntObjectHashMap<>();
+
+    void add(Task task) {
+        if (!isScheduled(task)) {
+            return;
+        }
+        remove(task.getId());
+        Slot slot = new Slot(task, task.getStartTime(), task.getEndTime());
+        slots.add(slot);
+        slotsById.put(slot.id, slot);
+    }
+
+    void remove(int id) { // Время начала берётся из слота, поэтому удаление работает и для изменённой задачи
+        Slot slot = slotsById.remove(id);
+        if (slot != null) {
+            slots.remove(slot);
+        }
+    }
+
+    void clear() {
+        slots.clear();
+        slotsById.clear();
+    }
+
+    boolean hasOverlap(Task task) {
+        return !collectOverlapping(task, true).isEmpty();
+    }
+
+    List<Task> findOverlapping(Task task) {
+        return collectOverlapping(task, false);
+    }
+
+    Task findCovering(LocalDateTime moment) { // Задача, начавшаяся раньше moment и ещё идущая в этот момент
+        /* Из начавшихся раньше moment покрыть его может только последний. Ненулевые интервалы не пересекаются,
+           а нулевой внутри другого интервала менеджер не допустит. Нулевой интервал в начале другого стоит
+           перед ним, так как порядок при равных началах идёт по концу */
+        Slot slot = slots.lower(probe(moment));
+        return slot != null && moment.isBefore(slot.end) ? slot.task : null;
+    }
+
+    /* Свободные промежутки не короче duration, начиная с момента after, по порядку. Обходятся промежутки
+       между интервалами от after вперёд, пока не найдено count подходящих: O(log n + k), где k - число
+       пройденных интервалов. Последний промежуток после всех задач не ограничен */
+    List<FreeSlot> findFreeSlots(Duration duration, LocalDateTime after, int count) {
+        List<FreeSlot> free = new ArrayList<>(count);
+        walkGaps(after, null, gap -> {
+            if (gap.getEnd() == null || !gap.getStart().plus(duration).isAfter(gap.getEnd())) {
+                free.add(gap);
+            }
+            return free.size() < count;
+        });
+        return free;
+    }
+
+    List<FreeSlot> findFreeSlots(LocalDateTime from, LocalDateTime to) { // Все промежутки окна, to == null - без конца
+        List<FreeSlot> free = new ArrayList<>();
+        walkGaps(from, to, free::add);
+        return free;
+    }
+
+    // Обходит свободные промежутки от after до until (null - без ограничения), пока visitor возвращает true
+    private void walkGaps(LocalDateTime after, LocalDateTime until, Predicate<FreeSlot> visitor) {
+        LocalDateTime gapStart = after;
+        Slot covering = slots.lower(probe(after));
+        if (covering != null && after.isBefore(covering.end)) {
+            gapStart = covering.end;
+        }
+
+        for (Slot slot : slots.tailSet(probe(after), true)) {
+            if (until != null && !slot.start.isBefore(until)) {
+                break;
+            }
+            if (gapStart.isBefore(slot.start) && !visitor.test(new FreeSlot(gapStart, slot.start))) {
+                return;
+            }
+            if (slot.end.isAfter(gapStart)) {
+                gapStart = slot.end;
+            }
+        }
+        if (until == null) {
+            visitor.test(new FreeSlot(gapStart, null));
+        } else if (gapStart.isBefore(until)) {
+            visitor.test(new FreeSlot(gapStart, until));
+        }
+    }
+
+    private List<Task> collectOverlapping(Task task, boolean firstOnly) {
+        if (!isScheduled(task)) {
+            return List.of();
+        }
+
+        LocalDateTime newStart = task.getStartTime();
+        LocalDateTime newEnd = task.getEndTime();
+        List<Task> overlapping = new ArrayList<>();
+
+        // Интервалы, начинающиеся строго раньше конца новой задачи, в порядке убывания начала
+        Iterator<Slot> iterator = slots.headSet(probe(newEnd), false).descendingIterator();
+        while (iterator.hasNext()) {
+            Slot slot = iterator.next();
+            if (!newStart.isBefore(slot.end)) {
+                break;
+            }
+            if (slot.id == task.getId()) { // Задача не пересекается сама с собой (обновление)
+                continue;
+            }
+            overlapping.add(slot.task);
+            if (firstOnly) {
+                break;
+            }
+        }
+        return overlapping;
+    }
+
+    private static boolean isScheduled(Task task) {
+        return task.getStartTime() != null && task.getDuration() != null;
+    }
+
+    private static Slot probe(LocalDateTime start) {
+        return new Slot(null, Integer.MIN_VALUE, start, start);
+    }
+
+    private static class Slot {
+        final Task task;
+        final int id;
+        final LocalDateTime start;
+        final LocalDateTime end;
+
+        Slot(Task task, LocalDateTime start, LocalDateTime end) {
+            this(task, task.getId(), start, end);
+        }
+
+        Slot(Task task, int id, LocalDateTime start, LocalDateTime end) {
+            this.task = task;
+            this.id = id;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class Counter { // Монотонно растущий счётчик событий
+    private final LongAdder value = new LongAdder();
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Счётчик не может уменьшаться");
+        }
+        value.add(amount);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+}
@@ -0,0 +1,149 @@
+package metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/* Реестр метрик с выдачей в текстовом формате Prometheus (version 0.0.4).
+   Метрики регистрируются один раз по имени и меткам и дальше пишутся напрямую, без обращения к реестру.
+   Метки передаются парами имя, значение. Повторная регистрация с теми же именем и метками возвращает прежний
+   счётчик или гистограмму, а для показателя заменяет источник значения. Гистограммы выдаются как summary:
+   квантили 0.5, 0.99, 0.999, сумма и число записей в секундах */
+public class MetricsRegistry {
+    private static final Pattern NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+    private static final Pattern LABEL = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    public synchronized Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, help, Type.COUNTER).metrics.computeIfAbsent(labelsOf(labels),
+                key -> new Counter());
+    }
+
+    public synchronized Histogram histogram(String name, String help, String... labels) {
+        return (Histogram) family(name, help, Type.SUMMARY).metrics.computeIfAbsent(labelsOf(labels),
+                key -> new Histogram());
+    }
+
+    public synchronized void gauge(String name, String help, LongSupplier value, String... labels) {
+        family(name, help, Type.GAUGE).metrics.put(labelsOf(labels), value);
+    }
+
+    /* Все метрики в текстовом формате Prometheus. Показатели вычисляются вне блокировки реестра,
+       так как источники значений могут обращаться к менеджеру задач */
+    public String scrape() {
+        List<Family> snapshot = new ArrayList<>();
+        synchronized (this) {
+            families.values().forEach(family -> snapshot.add(family.copy()));
+        }
+
+        StringBuilder out = new StringBuilder();
+        for (Family family : snapshot) {
+            out.append("# HELP ").append(family.name).append(' ').append(escapeHelp(family.help)).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type.text).append('\n');
+            family.metrics.forEach((labels, metric) -> {
+                switch (family.type) {
+                    case COUNTER -> sample(out, family.name, labels, ((Counter) metric).get());
+                    case GAUGE -> sample(out, family.name, labels, ((LongSupplier) metric).getAsLong());
+                    case SUMMARY -> writeSummary(out, family.name, labels, (Histogram) metric);
+                }
+            });
+        }
+        return out.toString();
+    }
+
+    private void writeSummary(StringBuilder out, String name, String labels, Histogram histogram) {
+        long[] values = histogram.percentiles(QUANTILES);
+        for (int i = 0; i < QUANTILES.length; i++) {
+            String quantile = "quantile=\"" + QUANTILES[i] + "\"";
+            sample(out, name, labels.isEmpty() ? quantile : labels + "," + quantile, seconds(values[i]));
+        }
+        sample(out, name + "_sum", labels, seconds(histogram.getSum()));
+        sample(out, name + "_count", labels, histogram.getCount());
+    }
+
+    private Family family(String name, String help, Type type) {
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Некорректное имя метрики: " + name);
+        }
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type));
+        if (family.type != type) {
+            throw new IllegalArgumentException("Метрика " + name + " уже зарегистрирована с типом "
+                    + family.type.text);
+        }
+        return family;
+    }
+
+    private static String labelsOf(String[] labels) { // Пары имя, значение в виде a="1",b="2"
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Метки задаются парами имя, значение");
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (!LABEL.matcher(labels[i]).matches()) {
+                throw new IllegalArgumentException("Некорректное имя метки: " + labels[i]);
+            }
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append(labels[i]).append("=\"").append(escapeLabel(labels[i + 1])).append('"');
+        }
+        return text.toString();
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, Object value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / NANOS_PER_SECOND;
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private enum Type {
+        COUNTER("counter"),
+        GAUGE("gauge"),
+        SUMMARY("summary");
+
+        final String text;
+
+        Type(String text) {
+            this.text = text;
+        }
+    }
+
+    private static class Family { // Метрики одного имени с разными метками, в порядке регистрации
+        final String name;
+        final String help;
+        final Type type;
+        final Map<String, Object> metrics = new LinkedHashMap<>();
+
+        Family(String name, String help, Type type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+
+        Family copy() {
+            Family copy = new Family(name, help, type);
+            copy.metrics.putAll(metrics);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package server;
+
+class BadRequestException extends RuntimeException { // Некорректные параметры запроса, ответ 400
+    private static final long serialVersionUID = 1L;
+
+    BadRequestException(String message) {
+        super(message);
+    }
+}
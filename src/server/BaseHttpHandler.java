@@ -1,20 +1,77 @@
 package server;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
 import com.sun.net.httpserver.HttpExchange;
+import manager.BatchResult;
+import manager.FreeSlot;
+import manager.TaskManager;
+import task.Task;
+import tools.BatchError;
+import tools.Status;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class BaseHttpHandler {
+    static final String FREE_SLOTS_HEADER = "X-Free-Slots";
+    private static final int FREE_SLOT_SUGGESTIONS = 3;
     protected final Gson gson;
+    private final TaskJsonCache jsonCache; // null - списки задач сериализуются целиком при каждом запросе
+    // Метка экземпляра в ETag: версии нового менеджера снова начинаются с нуля и не должны совпасть со старыми
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
 
     public BaseHttpHandler(Gson gson) {
+        this(gson, null);
+    }
+
+    public BaseHttpHandler(Gson gson, TaskJsonCache jsonCache) {
         this.gson = gson;
+        this.jsonCache = jsonCache;
+    }
+
+    /* Условный GET: ETag строится из версии коллекции и строки запроса (у разных страниц разные теги).
+       Если клиент прислал такой же тег в If-None-Match, отвечаем 304 без тела и возвращаем true.
+       Версию нужно получить до чтения данных, иначе новые данные могут уйти со старым тегом */
+    protected boolean notModified(HttpExchange exchange, long version) throws IOException {
+        String query = exchange.getRequestURI().getRawQuery();
+        String etag = "\"" + epoch + "-" + version + "-" + Integer.toHexString(Objects.hashCode(query)) + "\"";
+        exchange.getResponseHeaders().set("ETag", etag);
+
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) { // Для If-None-Match слабое сравнение
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals("*")) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return true;
+            }
+        }
+        return false;
     }
 
     protected void sendResponse(HttpExchange exchange, String response, int statusCode) throws IOException {
+        if (exchange.getResponseCode() != -1) { // Сбой после отправки заголовков, см. abortResponse
+            throw new IOException("Заголовки ответа уже отправлены, ответ прерван");
+        }
         byte[] responseBytes = response.getBytes(StandardCharsets.UTF_8);
         exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
         exchange.sendResponseHeaders(statusCode, responseBytes.length);
@@ -24,6 +81,128 @@ public class BaseHttpHandler {
         }
     }
 
+    /* Сериализует объект прямо в тело ответа, не собирая JSON в строку: ответ отдаётся частями (chunked),
+       поэтому его длина заранее не нужна, а память на запрос не зависит от размера списка */
+    protected void sendJson(HttpExchange exchange, Object value, int statusCode) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(statusCode, 0);
+
+        JsonWriter jsonWriter = gson.newJsonWriter(new Utf8StreamWriter(exchange.getResponseBody()));
+        try {
+            gson.toJson(value, value.getClass(), jsonWriter);
+        } catch (RuntimeException e) {
+            throw abortResponse(e);
+        }
+        jsonWriter.close();
+    }
+
+    /* Список задач из готовых фрагментов кэша, склеенных прямо в поток ответа (chunked, как и sendJson):
+       Gson вызывается только для задач, изменившихся с прошлого чтения */
+    protected void sendTasks(HttpExchange exchange, List<? extends Task> tasks, int statusCode) throws IOException {
+        if (jsonCache == null) {
+            sendJson(exchange, tasks, statusCode);
+            return;
+        }
+        long generation = jsonCache.generation(); // До сборки, см. TaskJsonCache
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(statusCode, 0);
+        OutputStream os = exchange.getResponseBody();
+        try {
+            os.write('[');
+            for (int i = 0; i < tasks.size(); i++) {
+                if (i > 0) {
+                    os.write(',');
+                }
+                os.write(jsonCache.toJson(tasks.get(i), generation));
+            }
+            os.write(']');
+        } catch (RuntimeException e) {
+            throw abortResponse(e);
+        }
+        os.close();
+    }
+
+    /* Сбой посреди потоковой отдачи, когда статус 200 уже отправлен. Закрытие тела завершило бы chunked-ответ
+       (а при сжатии - отправило бы буфер с Content-Length), и клиент получил бы обрезанный, но правильно
+       оформленный ответ 200. Поэтому тело не закрывается, а исключение выходит из обработчика: его
+       sendInternalError сам бросает IOException, так как заголовки уже ушли, и сервер разрывает соединение */
+    private static IOException abortResponse(RuntimeException cause) {
+        return new IOException("Ошибка сериализации ответа", cause);
+    }
+
+    // Фильтр списка ?status=...: null, если не задан. С постраничным чтением не сочетается
+    protected Status parseStatusFilter(HttpExchange exchange, PageRequest page) {
+        String value = PageRequest.parseQuery(exchange.getRequestURI().getRawQuery()).get("status");
+        if (value == null) {
+            return null;
+        }
+        if (page != null) {
+            throw new BadRequestException("Фильтр status не сочетается с постраничным чтением");
+        }
+        try {
+            return Status.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Неизвестный статус: " + value);
+        }
+    }
+
+    // Страница списка: items запрошены с одним лишним элементом, его наличие означает, что есть продолжение
+    protected <T extends Task> void sendPage(HttpExchange exchange, List<T> items, PageRequest page,
+                                             Function<T, String> cursorOf) throws IOException {
+        if (items.size() > page.getLimit()) {
+            List<T> pageItems = items.subList(0, page.getLimit());
+            exchange.getResponseHeaders().set(PageRequest.NEXT_CURSOR_HEADER, cursorOf.apply(pageItems.getLast()));
+            sendTasks(exchange, pageItems, 200);
+        } else {
+            sendTasks(exchange, items, 200);
+        }
+    }
+
+    /* Читает JSON-массив из тела запроса потоково: элементы разбираются по одному прямо из потока,
+       без чтения тела в строку. Некорректный JSON - BadRequestException */
+    protected <T> List<T> readJsonArray(HttpExchange exchange, Class<T> type) throws IOException {
+        List<T> items = new ArrayList<>();
+        try (JsonReader reader = gson.newJsonReader(
+                new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                T item = gson.fromJson(reader, type);
+                if (item == null) {
+                    throw new BadRequestException("Пустой элемент пакета: " + items.size());
+                }
+                items.add(item);
+            }
+            reader.endArray();
+        } catch (JsonParseException | MalformedJsonException | EOFException | IllegalStateException e) {
+            throw new BadRequestException("Тело запроса должно быть JSON-массивом: " + e.getMessage());
+        }
+        return items;
+    }
+
+    // Ответ на пакет - массив итогов по элементам, с теми же кодами, что у одиночных запросов (201, 404, 406)
+    protected void sendBatchResult(HttpExchange exchange, BatchResult result) throws IOException {
+        List<BatchItemResult> items = new ArrayList<>(result.size());
+        for (int i = 0; i < result.size(); i++) {
+            if (result.isApplied(i)) {
+                items.add(new BatchItemResult(i, 201, result.getTask(i).getId(), null));
+            } else {
+                items.add(new BatchItemResult(i, statusOf(result.getErrorType(i)), null, result.getError(i)));
+            }
+        }
+        sendJson(exchange, items, 200);
+    }
+
+    protected static int statusOf(BatchError error) {
+        switch (error) {
+            case NOT_FOUND:
+                return 404;
+            case INVALID:
+                return 400;
+            default: // Пересечение или нет свободного времени
+                return 406;
+        }
+    }
+
     protected void sendText(HttpExchange exchange, String text, int statusCode) throws IOException {
         sendResponse(exchange, text, statusCode);
     }
@@ -36,6 +215,24 @@ public class BaseHttpHandler {
         sendResponse(exchange, "Задача пересекается с существующими.", 406);
     }
 
+    /* 406 с подсказкой: ближайшие свободные промежутки, куда помещается отклонённая задача, - в заголовке
+       X-Free-Slots (интервалы ISO 8601 через запятую), чтобы клиент мог выбрать время без повторных попыток.
+       Тело ответа прежнее */
+    protected void sendHasInteractions(HttpExchange exchange, TaskManager taskManager, Task task) throws IOException {
+        if (task != null && task.getStartTime() != null && task.getDuration() != null
+                && task.getDuration().isPositive()) {
+            List<FreeSlot> freeSlots = taskManager.findFreeSlots(task.getDuration(), task.getStartTime(),
+                    FREE_SLOT_SUGGESTIONS);
+            exchange.getResponseHeaders().set(FREE_SLOTS_HEADER,
+                    freeSlots.stream().map(FreeSlot::toString).collect(Collectors.joining(",")));
+        }
+        sendHasInteractions(exchange);
+    }
+
+    protected void sendBadRequest(HttpExchange exchange) throws IOException {
+        sendResponse(exchange, "Некорректные параметры запроса.", 400);
+    }
+
     protected void sendInternalError(HttpExchange exchange) throws IOException {
         sendResponse(exchange, "Ошибка при обработке запроса.", 500);
     }
@@ -0,0 +1,23 @@
+package server;
+
+import java.time.LocalDateTime;
+
+class BatchItemResult { // Итог одного элемента пакетного запроса: код как у одиночного запроса, id или причина
+    private final int index;
+    private final int status;
+    private final Integer id;
+    private final LocalDateTime startTime; // Назначенное время для автоматического планирования
+    private final String error;
+
+    BatchItemResult(int index, int status, Integer id, String error) {
+        this(index, status, id, null, error);
+    }
+
+    BatchItemResult(int index, int status, Integer id, LocalDateTime startTime, String error) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.startTime = startTime;
+        this.error = error;
+    }
+}
@@ -0,0 +1,306 @@
+package server;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/* Сжатие ответов gzip или deflate по заголовку Accept-Encoding.
+   Обработчик получает обёртку над HttpExchange, которая откладывает отправку заголовков: пока тело ответа
+   не превысило порог, оно копится в буфере и при закрытии уходит несжатым с Content-Length; как только порог
+   превышен, заголовки уходят с Content-Encoding и тело сжимается потоком по частям (chunked).
+   Сильный ETag при сжатии становится слабым, так как байты ответа отличаются от несжатых */
+class CompressionFilter extends Filter {
+    private final int threshold;
+    private final CompressionStats stats;
+
+    CompressionFilter(int threshold, CompressionStats stats) {
+        this.threshold = threshold;
+        this.stats = stats;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+        String encoding = negotiate(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+        if (encoding == null) {
+            stats.recordUncompressed();
+            chain.doFilter(exchange);
+        } else {
+            chain.doFilter(new CompressingExchange(exchange, encoding));
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Сжатие ответов gzip/deflate";
+    }
+
+    // Выбирает gzip или deflate с наибольшим весом q; null - клиент принимает только несжатый ответ
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        double gzip = -1;
+        double deflate = -1;
+        double any = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            double quality = 1;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            switch (tokens[0].trim().toLowerCase(Locale.ROOT)) {
+                case "gzip", "x-gzip" -> gzip = quality;
+                case "deflate" -> deflate = quality;
+                case "*" -> any = quality;
+                default -> {
+                }
+            }
+        }
+        gzip = gzip < 0 ? any : gzip;
+        deflate = deflate < 0 ? any : deflate;
+
+        if (gzip > 0 && gzip >= deflate) {
+            return "gzip";
+        }
+        return deflate > 0 ? "deflate" : null;
+    }
+
+    private class CompressingExchange extends HttpExchange {
+        private final HttpExchange exchange;
+        private final String encoding;
+        private ResponseBody body;
+        private int responseCode = -1;
+
+        CompressingExchange(HttpExchange exchange, String encoding) {
+            this.exchange = exchange;
+            this.encoding = encoding;
+        }
+
+        @Override
+        public void sendResponseHeaders(int code, long length) throws IOException {
+            if (length < 0 || length > 0 && length < threshold) { // Без тела или заведомо меньше порога
+                stats.recordUncompressed();
+                exchange.sendResponseHeaders(code, length);
+                return;
+            }
+            responseCode = code;
+            body = new ResponseBody();
+            if (length > 0) { // Длина известна и не меньше порога: буфер не нужен
+                body.startCompression();
+            }
+        }
+
+        @Override
+        public OutputStream getResponseBody() {
+            return body != null ? body : exchange.getResponseBody();
+        }
+
+        @Override
+        public void close() {
+            if (body == null) {
+                exchange.close();
+                return;
+            }
+            try {
+                body.close();
+            } catch (IOException e) {
+                exchange.close();
+            }
+        }
+
+        @Override
+        public int getResponseCode() {
+            return responseCode != -1 ? responseCode : exchange.getResponseCode();
+        }
+
+        @Override
+        public Headers getRequestHeaders() {
+            return exchange.getRequestHeaders();
+        }
+
+        @Override
+        public Headers getResponseHeaders() {
+            return exchange.getResponseHeaders();
+        }
+
+        @Override
+        public URI getRequestURI() {
+            return exchange.getRequestURI();
+        }
+
+        @Override
+        public String getRequestMethod() {
+            return exchange.getRequestMethod();
+        }
+
+        @Override
+        public HttpContext getHttpContext() {
+            return exchange.getHttpContext();
+        }
+
+        @Override
+        public InputStream getRequestBody() {
+            return exchange.getRequestBody();
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return exchange.getRemoteAddress();
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return exchange.getLocalAddress();
+        }
+
+        @Override
+        public String getProtocol() {
+            return exchange.getProtocol();
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return exchange.getAttribute(name);
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+            exchange.setAttribute(name, value);
+        }
+
+        @Override
+        public void setStreams(InputStream input, OutputStream output) {
+            exchange.setStreams(input, output);
+        }
+
+        @Override
+        public HttpPrincipal getPrincipal() {
+            return exchange.getPrincipal();
+        }
+
+        // Тело ответа: до порога копится в буфере, после - сжимается прямо в поток ответа
+        private class ResponseBody extends OutputStream {
+            private byte[] pending = new byte[Math.min(threshold, 64 * 1024)];
+            private int pendingSize;
+            private long written;
+            private CountingStream compressedOut;
+            private OutputStream target;
+            private boolean closed;
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                if (closed) {
+                    throw new IOException("Поток ответа уже закрыт");
+                }
+                written += length;
+                if (target == null) {
+                    if (pendingSize + length <= threshold) {
+                        ensureCapacity(pendingSize + length);
+                        System.arraycopy(bytes, offset, pending, pendingSize, length);
+                        pendingSize += length;
+                        return;
+                    }
+                    startCompression();
+                }
+                target.write(bytes, offset, length);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (target != null) {
+                    target.flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                if (target == null) { // Ответ не дорос до порога и уходит как есть
+                    stats.recordUncompressed();
+                    exchange.sendResponseHeaders(responseCode, pendingSize == 0 ? -1 : pendingSize);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(pending, 0, pendingSize);
+                    }
+                } else {
+                    target.close();
+                    stats.recordCompressed(written, compressedOut.count);
+                }
+            }
+
+            void startCompression() throws IOException {
+                Headers headers = exchange.getResponseHeaders();
+                headers.set("Content-Encoding", encoding);
+                String etag = headers.getFirst("ETag");
+                if (etag != null && !etag.startsWith("W/")) {
+                    headers.set("ETag", "W/" + etag);
+                }
+                exchange.sendResponseHeaders(responseCode, 0);
+
+                compressedOut = new CountingStream(exchange.getResponseBody());
+                target = encoding.equals("gzip")
+                        ? new GZIPOutputStream(compressedOut, 8192)
+                        : new DeflaterOutputStream(compressedOut);
+                if (pendingSize > 0) {
+                    target.write(pending, 0, pendingSize);
+                }
+                pending = null;
+            }
+
+            private void ensureCapacity(int capacity) {
+                if (capacity > pending.length) {
+                    byte[] grown = new byte[Math.max(capacity, pending.length * 2)];
+                    System.arraycopy(pending, 0, grown, 0, pendingSize);
+                    pending = grown;
+                }
+            }
+        }
+    }
+
+    private static class CountingStream extends FilterOutputStream {
+        private long count;
+
+        CountingStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            count += length;
+        }
+    }
+}
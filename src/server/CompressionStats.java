@@ -0,0 +1,51 @@
+package server;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class CompressionStats { // Статистика сжатия ответов сервера
+    private final LongAdder compressedResponses = new LongAdder();
+    private final LongAdder uncompressedResponses = new LongAdder();
+    private final LongAdder bytesBeforeCompression = new LongAdder();
+    private final LongAdder bytesAfterCompression = new LongAdder();
+
+    void recordCompressed(long before, long after) {
+        compressedResponses.increment();
+        bytesBeforeCompression.add(before);
+        bytesAfterCompression.add(after);
+    }
+
+    void recordUncompressed() {
+        uncompressedResponses.increment();
+    }
+
+    public long getCompressedResponses() {
+        return compressedResponses.sum();
+    }
+
+    public long getUncompressedResponses() { // Клиент не принимает сжатие или ответ меньше порога
+        return uncompressedResponses.sum();
+    }
+
+    public long getBytesBeforeCompression() {
+        return bytesBeforeCompression.sum();
+    }
+
+    public long getBytesAfterCompression() {
+        return bytesAfterCompression.sum();
+    }
+
+    public double getCompressionRatio() { // Во сколько раз сжатые ответы меньше исходных
+        long after = getBytesAfterCompression();
+        return after == 0 ? 1.0 : (double) getBytesBeforeCompression() / after;
+    }
+
+    @Override
+    public String toString() {
+        return "CompressionStats{" +
+                "compressed=" + getCompressedResponses() +
+                ", uncompressed=" + getUncompressedResponses() +
+                ", bytesBefore=" + getBytesBeforeCompression() +
+                ", bytesAfter=" + getBytesAfterCompression() +
+                '}';
+    }
+}
@@ -5,6 +5,9 @@ import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import manager.TaskManager;
 import task.Epic;
+import tools.CollectionType;
+import tools.Status;
+import tools.TaskType;
 
 import java.io.IOException;
 import java.util.List;
@@ -13,7 +16,11 @@ class EpicsHandler extends BaseHttpHandler implements HttpHandler {
     private final TaskManager taskManager;
 
     public EpicsHandler(TaskManager taskManager, Gson gson) {
-        super(gson);
+        this(taskManager, gson, null);
+    }
+
+    public EpicsHandler(TaskManager taskManager, Gson gson, TaskJsonCache jsonCache) {
+        super(gson, jsonCache);
         this.taskManager = taskManager;
     }
 
@@ -26,13 +33,24 @@ class EpicsHandler extends BaseHttpHandler implements HttpHandler {
             switch (method) {
                 case "GET":
                     if (path.equals("/epics")) {
-                        List<Epic> epics = taskManager.getAllEpics();
-                        sendText(exchange, gson.toJson(epics), 200);
+                        PageRequest page = PageRequest.parse(exchange, "epics");
+                        Status status = parseStatusFilter(exchange, page);
+                        if (notModified(exchange, taskManager.getVersion(CollectionType.EPICS))) {
+                            break;
+                        }
+                        if (status != null) { // Колонка доски по индексу статусов
+                            sendTasks(exchange, taskManager.getByStatus(TaskType.EPIC, status), 200);
+                        } else if (page == null) {
+                            sendTasks(exchange, taskManager.getAllEpics(), 200);
+                        } else { // Лишний элемент показывает, есть ли следующая страница
+                            List<Epic> epics = taskManager.getEpics(page.getAfterId(), page.getLimit() + 1);
+                            sendPage(exchange, epics, page, item -> page.next(item.getId()));
+                        }
                     } else {
                         int id = Integer.parseInt(path.substring(path.lastIndexOf("/") + 1));
                         Epic epic = taskManager.getEpicById(id);
                         if (epic != null) {
-                            sendText(exchange, gson.toJson(epic), 200);
+                            sendJson(exchange, epic, 200);
                         } else {
                             sendNotFound(exchange);
                         }
@@ -74,6 +92,8 @@ class EpicsHandler extends BaseHttpHandler implements HttpHandler {
                     }
                     break;
             }
+        } catch (BadRequestException e) {
+            sendBadRequest(exchange);
         } catch (IOException e) {
             sendInternalError(exchange);
         } catch (Exception e) {
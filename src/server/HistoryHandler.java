@@ -5,6 +5,7 @@ import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import manager.TaskManager;
 import task.Task;
+import tools.CollectionType;
 
 import java.io.IOException;
 import java.util.List;
@@ -21,11 +22,22 @@ class HistoryHandler extends BaseHttpHandler implements HttpHandler {
     public void handle(HttpExchange exchange) throws IOException {
         try {
             if ("GET".equals(exchange.getRequestMethod())) {
-                List<Task> history = taskManager.getHistory();
-                sendText(exchange, gson.toJson(history), 200);
+                PageRequest page = PageRequest.parse(exchange, "history");
+                if (notModified(exchange, taskManager.getVersion(CollectionType.HISTORY))) {
+                    return;
+                }
+                if (page == null) {
+                    sendJson(exchange, taskManager.getHistory(), 200);
+                } else { // У истории нет устойчивого ключа, поэтому курсор хранит число отданных просмотров
+                    List<Task> history = taskManager.getHistory(page.getOffset(), page.getLimit() + 1);
+                    int nextOffset = page.getOffset() + page.getLimit();
+                    sendPage(exchange, history, page, task -> page.next(nextOffset));
+                }
             } else {
                 sendNotFound(exchange);
             }
+        } catch (BadRequestException e) {
+            sendBadRequest(exchange);
         } catch (IOException e) {
             sendInternalError(exchange);
         }
@@ -4,44 +4,105 @@ import adapter.DurationAdapter;
 import adapter.LocalDateTimeAdapter;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.sun.net.httpserver.HttpContext;
 import com.sun.net.httpserver.HttpServer;
+import manager.InstrumentedTaskManager;
 import manager.Managers;
 import manager.TaskManager;
+import metrics.MetricsRegistry;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class HttpTaskServer {
-    private static final int PORT = 8080;
     private final HttpServer server;
     private final Gson gson;
+    private final ServerConfig config;
+    private final ExecutorService executor;
+    private final CompressionStats compressionStats = new CompressionStats();
+    private final MetricsRegistry metrics;
 
     public HttpTaskServer(TaskManager taskManager) throws IOException {
+        this(taskManager, ServerConfig.defaults());
+    }
+
+    public HttpTaskServer(TaskManager taskManager, ServerConfig config) throws IOException {
+        this(taskManager, config, new MetricsRegistry());
+    }
+
+    /* Обработчики работают с менеджером через замеряющую обёртку, а каждый контекст - через фильтр метрик;
+       всё собранное, вместе с метриками, записанными в тот же реестр другими частями, отдаётся на GET /metrics */
+    public HttpTaskServer(TaskManager taskManager, ServerConfig config, MetricsRegistry metrics) throws IOException {
         this.gson = createGson();
-        this.server = HttpServer.create(new InetSocketAddress(PORT), 0);
+        this.config = config;
+        this.metrics = metrics;
+        this.server = HttpServer.create(new InetSocketAddress(config.getPort()), config.getBacklog());
+        this.executor = config.createExecutor();
+        server.setExecutor(executor);
+        taskManager = new InstrumentedTaskManager(taskManager, metrics);
+        TaskJsonCache jsonCache = new TaskJsonCache(gson); // Сбрасывается менеджером при изменении задач
+        taskManager.addChangeListener(jsonCache);
+
+        List<HttpContext> contexts = List.of(
+                server.createContext("/tasks", new TasksHandler(taskManager, gson, jsonCache)),
+                server.createContext("/epics", new EpicsHandler(taskManager, gson, jsonCache)),
+                server.createContext("/subtasks", new SubtasksHandler(taskManager, gson, jsonCache)),
+                server.createContext("/history", new HistoryHandler(taskManager, gson)),
+                server.createContext("/prioritized", new PrioritizedHandler(taskManager, gson, jsonCache)),
+                server.createContext("/schedule", new ScheduleHandler(taskManager, gson)),
+                server.createContext("/search", new SearchHandler(taskManager, gson, jsonCache)),
+                server.createContext("/metrics", new MetricsHandler(metrics, gson)));
+
+        contexts.forEach(context -> context.getFilters().add(new MetricsFilter(metrics, context.getPath())));
 
-        server.createContext("/tasks", new TasksHandler(taskManager, gson));
-        server.createContext("/epics", new EpicsHandler(taskManager, gson));
-        server.createContext("/subtasks", new SubtasksHandler(taskManager, gson));
-        server.createContext("/history", new HistoryHandler(taskManager, gson));
-        server.createContext("/prioritized", new PrioritizedHandler(taskManager, gson));
+        if (config.isCompressionEnabled()) {
+            CompressionFilter compression = new CompressionFilter(config.getCompressionThreshold(), compressionStats);
+            contexts.forEach(context -> context.getFilters().add(compression));
+        }
     }
 
     public void start() {
-        System.out.println("Сервер запущен на порте " + PORT);
+        System.out.println("Сервер запущен на порте " + config.getPort());
         server.start();
     }
 
-    public void stop() {
-        server.stop(0);
+    public void stop() { // Ждёт завершения начатых запросов не дольше заданного в настройках времени
+        Duration timeout = config.getShutdownTimeout();
+        server.stop((int) Math.min(Integer.MAX_VALUE, timeout.toSeconds()));
+
+        if (executor != null && config.ownsExecutor()) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
         System.out.println("Сервер остановлен");
     }
 
+    public CompressionStats getCompressionStats() {
+        return compressionStats;
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
     public static void main(String[] args) throws IOException {
-        TaskManager taskManager = Managers.getDefault();
-        HttpTaskServer server = new HttpTaskServer(taskManager);
+        TaskManager taskManager = Managers.getConcurrent();
+        ServerConfig config = ServerConfig.defaults()
+                .withVirtualThreads()
+                .withShutdownTimeout(Duration.ofSeconds(5));
+        HttpTaskServer server = new HttpTaskServer(taskManager, config);
         server.start();
     }
 
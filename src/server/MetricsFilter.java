@@ -0,0 +1,43 @@
+package server;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import metrics.Counter;
+import metrics.Histogram;
+import metrics.MetricsRegistry;
+
+import java.io.IOException;
+
+/* Замер обработки запросов одного контекста: гистограмма длительности и счётчики ответов по классу кода.
+   Фильтр стоит первым в цепочке, поэтому время включает сжатие и отправку тела ответа.
+   Метрики создаются при регистрации контекста, запрос только пишет в них */
+class MetricsFilter extends Filter {
+    private final Histogram latency;
+    private final Counter[] responses = new Counter[6]; // По первой цифре кода, 0 - ответ не отправлен
+
+    MetricsFilter(MetricsRegistry registry, String context) {
+        latency = registry.histogram("http_request_duration_seconds", "Длительность обработки HTTP-запросов",
+                "context", context);
+        for (int i = 0; i < responses.length; i++) {
+            responses[i] = registry.counter("http_responses_total", "Число ответов по классу кода",
+                    "context", context, "code", i == 0 ? "none" : i + "xx");
+        }
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            latency.recordSince(start);
+            int code = exchange.getResponseCode();
+            responses[code >= 100 && code < 600 ? code / 100 : 0].increment();
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Метрики обработки запросов";
+    }
+}
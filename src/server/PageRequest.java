@@ -0,0 +1,126 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/* Параметры постраничного чтения списка: ?limit=N&cursor=...
+   Курсор непрозрачен для клиента: это base64url от вида списка и позиции последнего отданного элемента,
+   поэтому курсор одного списка не примется другим. Курсор следующей страницы отдаётся в заголовке
+   X-Next-Cursor, тело ответа остаётся массивом */
+class PageRequest {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 10_000;
+    private static final String SEPARATOR = "|";
+
+    private final String kind;
+    private final int limit;
+    private final String[] position;
+
+    private PageRequest(String kind, int limit, String[] position) {
+        this.kind = kind;
+        this.limit = limit;
+        this.position = position;
+    }
+
+    // Без limit и cursor возвращает null: клиент просит весь список, как раньше
+    static PageRequest parse(HttpExchange exchange, String kind) {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String limitParam = query.get("limit");
+        String cursorParam = query.get("cursor");
+        if (limitParam == null && cursorParam == null) {
+            return null;
+        }
+
+        int limit = DEFAULT_LIMIT;
+        if (limitParam != null) {
+            try {
+                limit = Integer.parseInt(limitParam);
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Некорректный limit: " + limitParam);
+            }
+            if (limit <= 0 || limit > MAX_LIMIT) {
+                throw new BadRequestException("limit должен быть от 1 до " + MAX_LIMIT);
+            }
+        }
+        return new PageRequest(kind, limit, cursorParam == null ? new String[0] : decode(cursorParam, kind));
+    }
+
+    static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int getAfterId() { // id последнего отданного элемента (последняя часть курсора), 0 - с начала списка
+        return position.length == 0 ? 0 : parseInt(position[position.length - 1]);
+    }
+
+    LocalDateTime getAfterStart() { // Время начала последней отданной задачи в списке по приоритету
+        if (position.length < 2) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(position[0]);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Некорректный курсор");
+        }
+    }
+
+    int getOffset() { // Число уже отданных элементов для списков без устойчивого ключа (история)
+        return position.length == 0 ? 0 : parseInt(position[0]);
+    }
+
+    String next(Object... parts) { // Курсор, указывающий на позицию после переданного элемента
+        StringBuilder cursor = new StringBuilder(kind);
+        for (Object part : parts) {
+            cursor.append(SEPARATOR).append(part);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(cursor.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decode(String cursor, String kind) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Некорректный курсор");
+        }
+        String[] parts = decoded.split("\\" + SEPARATOR);
+        if (parts.length < 2 || !parts[0].equals(kind)) {
+            throw new BadRequestException("Курсор относится к другому списку");
+        }
+        String[] position = new String[parts.length - 1];
+        System.arraycopy(parts, 1, position, 0, position.length);
+        return position;
+    }
+
+    private static int parseInt(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Некорректный курсор");
+        }
+    }
+}
@@ -5,15 +5,23 @@ import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import manager.TaskManager;
 import task.Task;
+import tools.CollectionType;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 
 class PrioritizedHandler extends BaseHttpHandler implements HttpHandler {
     private final TaskManager taskManager;
 
     public PrioritizedHandler(TaskManager taskManager, Gson gson) {
-        super(gson);
+        this(taskManager, gson, null);
+    }
+
+    public PrioritizedHandler(TaskManager taskManager, Gson gson, TaskJsonCache jsonCache) {
+        super(gson, jsonCache);
         this.taskManager = taskManager;
     }
 
@@ -21,13 +29,47 @@ class PrioritizedHandler extends BaseHttpHandler implements HttpHandler {
     public void handle(HttpExchange exchange) throws IOException {
         try {
             if ("GET".equals(exchange.getRequestMethod())) {
-                List<Task> prioritizedTasks = taskManager.getPrioritizedTasks();
-                sendText(exchange, gson.toJson(prioritizedTasks), 200);
+                PageRequest page = PageRequest.parse(exchange, "prioritized");
+                Map<String, String> query = PageRequest.parseQuery(exchange.getRequestURI().getRawQuery());
+                boolean window = query.containsKey("from") || query.containsKey("to");
+                if (window && page != null) {
+                    throw new BadRequestException("Окно from/to не сочетается с постраничным чтением");
+                }
+                if (notModified(exchange, taskManager.getVersion(CollectionType.PRIORITIZED))) {
+                    return;
+                }
+                if (window) { // Окно календаря: ищется в дереве приоритетов, без обхода всего списка
+                    LocalDateTime from = parseTime(query.get("from"));
+                    LocalDateTime to = parseTime(query.get("to"));
+                    if (from != null && to != null && to.isBefore(from)) {
+                        throw new BadRequestException("Конец окна раньше его начала");
+                    }
+                    sendTasks(exchange, taskManager.getTasksInRange(from, to), 200);
+                } else if (page == null) {
+                    sendTasks(exchange, taskManager.getPrioritizedTasks(), 200);
+                } else { // Курсор - время начала и id последней задачи, по ним ищется позиция в дереве
+                    List<Task> prioritizedTasks = taskManager.getPrioritizedTasks(page.getAfterStart(),
+                            page.getAfterId(), page.getLimit() + 1);
+                    sendPage(exchange, prioritizedTasks, page, task -> page.next(task.getStartTime(), task.getId()));
+                }
             } else {
                 sendNotFound(exchange);
             }
+        } catch (BadRequestException e) {
+            sendBadRequest(exchange);
         } catch (IOException e) {
             sendInternalError(exchange);
         }
     }
+
+    private static LocalDateTime parseTime(String value) { // Граница окна в формате ISO, как время в JSON задач
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Некорректное время: " + value);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import manager.ScheduleResult;
+import manager.TaskManager;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/* POST /schedule - автоматическое планирование задач без времени по свободным промежуткам.
+   Тело: {"from": ..., "to": ..., "ids": [...]}, to и ids необязательны. С ?dryRun=true время только
+   рассчитывается. Ответ - итог по каждой задаче: назначенное время или причина отказа */
+class ScheduleHandler extends BaseHttpHandler implements HttpHandler {
+    private final TaskManager taskManager;
+
+    public ScheduleHandler(TaskManager taskManager, Gson gson) {
+        super(gson);
+        this.taskManager = taskManager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendNotFound(exchange);
+                return;
+            }
+            boolean dryRun = Boolean.parseBoolean(
+                    PageRequest.parseQuery(exchange.getRequestURI().getRawQuery()).get("dryRun"));
+            ScheduleRequest request = readRequest(exchange);
+            if (request == null || request.from == null || (request.to != null && !request.from.isBefore(request.to))) {
+                throw new BadRequestException("Нужен горизонт планирования: from раньше to");
+            }
+            if (request.ids != null && request.ids.contains(null)) {
+                throw new BadRequestException("Пустой id в списке задач");
+            }
+
+            ScheduleResult result = taskManager.scheduleTasks(request.ids, request.from, request.to, dryRun);
+            List<BatchItemResult> items = new ArrayList<>(result.size());
+            for (int i = 0; i < result.size(); i++) {
+                if (result.isApplied(i)) {
+                    items.add(new BatchItemResult(i, 200, result.getTask(i).getId(), result.getStartTime(i), null));
+                } else {
+                    items.add(new BatchItemResult(i, statusOf(result.getErrorType(i)), null, result.getError(i)));
+                }
+            }
+            sendJson(exchange, items, 200);
+        } catch (BadRequestException e) {
+            sendBadRequest(exchange);
+        } catch (IOException e) {
+            sendInternalError(exchange);
+        } catch (RuntimeException e) { // Непредвиденная ошибка не должна обрывать соединение без ответа
+            sendInternalError(exchange);
+        }
+    }
+
+    private ScheduleRequest readRequest(HttpExchange exchange) {
+        try (InputStreamReader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, ScheduleRequest.class);
+        } catch (JsonParseException | IOException e) {
+            throw new BadRequestException("Некорректное тело запроса: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package server;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+class ScheduleRequest { // Тело POST /schedule: горизонт планирования и, при необходимости, задачи по приоритету
+    LocalDateTime from;
+    LocalDateTime to;
+    List<Integer> ids;
+}
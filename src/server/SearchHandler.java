@@ -0,0 +1,94 @@
+package server;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import manager.TaskManager;
+import tools.CollectionType;
+import tools.TaskType;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/* GET /search?q=...&limit=N&type=task,epic,subtask - поиск по словам названия и описания.
+   Все слова запроса должны встретиться в задаче, каждое слово может быть началом слова задачи.
+   Без type ищется во всех коллекциях */
+class SearchHandler extends BaseHttpHandler implements HttpHandler {
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 1000;
+
+    private final TaskManager taskManager;
+
+    public SearchHandler(TaskManager taskManager, Gson gson) {
+        this(taskManager, gson, null);
+    }
+
+    public SearchHandler(TaskManager taskManager, Gson gson, TaskJsonCache jsonCache) {
+        super(gson, jsonCache);
+        this.taskManager = taskManager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendNotFound(exchange);
+                return;
+            }
+            Map<String, String> query = PageRequest.parseQuery(exchange.getRequestURI().getRawQuery());
+            String text = query.get("q");
+            if (text == null || text.isBlank()) {
+                throw new BadRequestException("Нужен текст запроса q");
+            }
+            int limit = parseLimit(query.get("limit"));
+            Set<TaskType> types = parseTypes(query.get("type"));
+
+            // Версии коллекций только растут, поэтому их сумма меняется при любом изменении задач
+            long version = taskManager.getVersion(CollectionType.TASKS) + taskManager.getVersion(CollectionType.EPICS)
+                    + taskManager.getVersion(CollectionType.SUBTASKS);
+            if (notModified(exchange, version)) {
+                return;
+            }
+            sendTasks(exchange, taskManager.search(text, types, limit), 200);
+        } catch (BadRequestException e) {
+            sendBadRequest(exchange);
+        } catch (IOException e) {
+            sendInternalError(exchange);
+        } catch (RuntimeException e) { // Непредвиденная ошибка не должна обрывать соединение без ответа
+            sendInternalError(exchange);
+        }
+    }
+
+    private static int parseLimit(String value) {
+        if (value == null) {
+            return DEFAULT_LIMIT;
+        }
+        int limit;
+        try {
+            limit = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Некорректный limit: " + value);
+        }
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new BadRequestException("limit должен быть от 1 до " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    private static Set<TaskType> parseTypes(String value) {
+        Set<TaskType> types = EnumSet.noneOf(TaskType.class);
+        if (value == null || value.isEmpty()) {
+            return types;
+        }
+        for (String type : value.split(",")) {
+            try {
+                types.add(TaskType.valueOf(type.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Неизвестный тип задач: " + type);
+            }
+        }
+        return types;
+    }
+}
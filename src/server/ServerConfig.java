@@ -0,0 +1,115 @@
+package server;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/* Настройки HTTP-сервера. По умолчанию запросы обрабатываются в одном потоке-диспетчере;
+   при многопоточной обработке менеджер задач должен быть потокобезопасным (Managers.getConcurrent()) */
+public class ServerConfig {
+    private static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+    private static final int NO_COMPRESSION = -1;
+
+    private final int port;
+    private final int backlog;
+    private final Supplier<ExecutorService> executorFactory;
+    private final boolean ownsExecutor;
+    private final Duration shutdownTimeout;
+    private final int compressionThreshold;
+
+    private ServerConfig(int port, int backlog, Supplier<ExecutorService> executorFactory, boolean ownsExecutor,
+                         Duration shutdownTimeout, int compressionThreshold) {
+        this.port = port;
+        this.backlog = backlog;
+        this.executorFactory = executorFactory;
+        this.ownsExecutor = ownsExecutor;
+        this.shutdownTimeout = shutdownTimeout;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public static ServerConfig defaults() {
+        return new ServerConfig(DEFAULT_PORT, 0, null, false, Duration.ZERO, DEFAULT_COMPRESSION_THRESHOLD);
+    }
+
+    public ServerConfig withPort(int port) {
+        return new ServerConfig(port, backlog, executorFactory, ownsExecutor, shutdownTimeout, compressionThreshold);
+    }
+
+    // Размер очереди входящих соединений; 0 - значение по умолчанию для системы
+    public ServerConfig withBacklog(int backlog) {
+        if (backlog < 0) {
+            throw new IllegalArgumentException("Размер очереди соединений не может быть отрицательным");
+        }
+        return new ServerConfig(port, backlog, executorFactory, ownsExecutor, shutdownTimeout, compressionThreshold);
+    }
+
+    // Отдельный виртуальный поток на каждый запрос
+    public ServerConfig withVirtualThreads() {
+        return new ServerConfig(port, backlog, Executors::newVirtualThreadPerTaskExecutor, true, shutdownTimeout,
+                compressionThreshold);
+    }
+
+    // Ограниченный пул платформенных потоков
+    public ServerConfig withThreadPool(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Число потоков должно быть положительным");
+        }
+        return new ServerConfig(port, backlog, () -> Executors.newFixedThreadPool(threads), true, shutdownTimeout,
+                compressionThreshold);
+    }
+
+    // Собственный исполнитель; сервер не останавливает его при остановке
+    public ServerConfig withExecutor(ExecutorService executor) {
+        return new ServerConfig(port, backlog, () -> executor, false, shutdownTimeout, compressionThreshold);
+    }
+
+    // Сколько stop() ждёт завершения уже начатых запросов
+    public ServerConfig withShutdownTimeout(Duration shutdownTimeout) {
+        if (shutdownTimeout.isNegative()) {
+            throw new IllegalArgumentException("Время ожидания не может быть отрицательным");
+        }
+        return new ServerConfig(port, backlog, executorFactory, ownsExecutor, shutdownTimeout, compressionThreshold);
+    }
+
+    // Сжимать ответы не меньше minBytes байт, если клиент принимает gzip или deflate
+    public ServerConfig withCompression(int minBytes) {
+        if (minBytes < 0) {
+            throw new IllegalArgumentException("Порог сжатия не может быть отрицательным");
+        }
+        return new ServerConfig(port, backlog, executorFactory, ownsExecutor, shutdownTimeout, minBytes);
+    }
+
+    public ServerConfig withoutCompression() {
+        return new ServerConfig(port, backlog, executorFactory, ownsExecutor, shutdownTimeout, NO_COMPRESSION);
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public ExecutorService createExecutor() { // null - запросы обрабатываются в потоке-диспетчере
+        return executorFactory != null ? executorFactory.get() : null;
+    }
+
+    public boolean ownsExecutor() {
+        return ownsExecutor;
+    }
+
+    public Duration getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionThreshold != NO_COMPRESSION;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+}
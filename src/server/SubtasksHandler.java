@@ -4,7 +4,11 @@ import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import manager.TaskManager;
+import manager.TaskOverlapException;
 import task.SubTask;
+import tools.CollectionType;
+import tools.Status;
+import tools.TaskType;
 
 import java.io.IOException;
 import java.util.List;
@@ -13,7 +17,11 @@ class SubtasksHandler extends BaseHttpHandler implements HttpHandler {
     private final TaskManager taskManager;
 
     public SubtasksHandler(TaskManager taskManager, Gson gson) {
-        super(gson);
+        this(taskManager, gson, null);
+    }
+
+    public SubtasksHandler(TaskManager taskManager, Gson gson, TaskJsonCache jsonCache) {
+        super(gson, jsonCache);
         this.taskManager = taskManager;
     }
 
@@ -26,36 +34,44 @@ class SubtasksHandler extends BaseHttpHandler implements HttpHandler {
             switch (method) {
                 case "GET":
                     if (path.equals("/subtasks")) {
-                        List<SubTask> subtasks = taskManager.getAllSubTasks();
-                        sendText(exchange, gson.toJson(subtasks), 200);
+                        PageRequest page = PageRequest.parse(exchange, "subtasks");
+                        Status status = parseStatusFilter(exchange, page);
+                        if (notModified(exchange, taskManager.getVersion(CollectionType.SUBTASKS))) {
+                            break;
+                        }
+                        if (status != null) { // Колонка доски по индексу статусов
+                            sendTasks(exchange, taskManager.getByStatus(TaskType.SUBTASK, status), 200);
+                        } else if (page == null) {
+                            sendTasks(exchange, taskManager.getAllSubTasks(), 200);
+                        } else { // Лишний элемент показывает, есть ли следующая страница
+                            List<SubTask> subtasks = taskManager.getSubTasks(page.getAfterId(), page.getLimit() + 1);
+                            sendPage(exchange, subtasks, page, item -> page.next(item.getId()));
+                        }
                     } else {
                         int id = Integer.parseInt(path.substring(path.lastIndexOf("/") + 1));
                         SubTask subtask = taskManager.getSubTaskById(id);
                         if (subtask != null) {
-                            sendText(exchange, gson.toJson(subtask), 200);
+                            sendJson(exchange, subtask, 200);
                         } else {
                             sendNotFound(exchange);
                         }
                     }
                     break;
                 case "POST":
+                    if (path.equals("/subtasks/batch")) { // Пакетное создание: JSON-массив разбирается потоково
+                        sendBatchResult(exchange, taskManager.addSubTasks(readJsonArray(exchange, SubTask.class)));
+                        break;
+                    }
                     SubTask newSubTask = gson.fromJson(new String(exchange.getRequestBody().readAllBytes()), SubTask.class);
 
+                    // Проверка пересечения выполняется атомарно вместе с вставкой или обновлением
                     SubTask existing = taskManager.getSubTaskById(newSubTask.getId());
                     if (existing != null) {
-                        if (taskManager.isTaskOverlapping(newSubTask)) {
-                            sendHasInteractions(exchange);
-                        } else {
-                            taskManager.updateSubTask(newSubTask);
-                            sendText(exchange, "Подзадача обновлена.", 200);
-                        }
+                        taskManager.updateSubTask(newSubTask);
+                        sendText(exchange, "Подзадача обновлена.", 200);
                     } else {
-                        if (taskManager.isTaskOverlapping(newSubTask)) {
-                            sendHasInteractions(exchange);
-                        } else {
-                            taskManager.addSubTask(newSubTask);
-                            sendText(exchange, "Подзадача создана.", 201);
-                        }
+                        taskManager.addSubTask(newSubTask);
+                        sendText(exchange, "Подзадача создана.", 201);
                     }
                     break;
                 case "DELETE":
@@ -69,6 +85,10 @@ class SubtasksHandler extends BaseHttpHandler implements HttpHandler {
                     }
                     break;
             }
+        } catch (TaskOverlapException e) {
+            sendHasInteractions(exchange, taskManager, e.getTask());
+        } catch (BadRequestException e) {
+            sendBadRequest(exchange);
         } catch (IOException e) {
             sendInternalError(exchange);
         } catch (Exception e) {
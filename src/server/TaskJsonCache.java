@@ -0,0 +1,59 @@
+package server;
+
+import com.google.gson.Gson;
+import manager.TaskChangeListener;
+import task.Task;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* Кэш JSON задач в UTF-8 по id. Задачи читаются намного чаще, чем меняются, поэтому список собирается из
+   готовых фрагментов, а Gson вызывается только для задач, изменившихся с прошлого чтения.
+   Менеджер сообщает id каждой изменённой задачи, и запись кэша удаляется. Запись помнит объект, из которого
+   собрана: другой объект с тем же id (например, прежняя версия задачи) кэш не использует.
+   Сборка может идти параллельно с изменением, поэтому фрагмент сохраняется, только если с начала сборки
+   не было ни одного изменения - иначе в кэше мог бы остаться JSON прежнего состояния */
+class TaskJsonCache implements TaskChangeListener {
+    private final Gson gson;
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong(); // Растёт при каждом изменении
+
+    TaskJsonCache(Gson gson) {
+        this.gson = gson;
+    }
+
+    @Override
+    public void taskChanged(int id) {
+        generation.incrementAndGet(); // До удаления: параллельная сборка увидит новое поколение и удалит свою запись
+        entries.remove(id);
+    }
+
+    long generation() { // Читается до сборки ответа и передаётся в toJson
+        return generation.get();
+    }
+
+    byte[] toJson(Task task, long startGeneration) {
+        Entry cached = entries.get(task.getId());
+        if (cached != null && cached.task == task) {
+            return cached.json;
+        }
+        Entry entry = new Entry(task, gson.toJson(task, task.getClass()).getBytes(StandardCharsets.UTF_8));
+        entries.put(task.getId(), entry);
+        if (generation.get() != startGeneration) {
+            entries.remove(task.getId(), entry);
+        }
+        return entry.json;
+    }
+
+    private static class Entry {
+        final Task task;
+        final byte[] json;
+
+        Entry(Task task, byte[] json) {
+            this.task = task;
+            this.json = json;
+        }
+    }
+}
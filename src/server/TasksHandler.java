@@ -4,7 +4,11 @@ import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import manager.TaskManager;
+import manager.TaskOverlapException;
 import task.Task;
+import tools.CollectionType;
+import tools.Status;
+import tools.TaskType;
 
 import java.io.IOException;
 import java.util.List;
@@ -13,7 +17,11 @@ public class TasksHandler extends BaseHttpHandler implements HttpHandler {
     private final TaskManager taskManager;
 
     public TasksHandler(TaskManager taskManager, Gson gson) {
-        super(gson);
+        this(taskManager, gson, null);
+    }
+
+    public TasksHandler(TaskManager taskManager, Gson gson, TaskJsonCache jsonCache) {
+        super(gson, jsonCache);
         this.taskManager = taskManager;
     }
 
@@ -26,41 +34,48 @@ public class TasksHandler extends BaseHttpHandler implements HttpHandler {
             switch (method) {
                 case "GET":
                     if (path.equals("/tasks")) {
-                        List<Task> tasks = taskManager.getAllTasks();
-                        sendText(exchange, gson.toJson(tasks), 200);
+                        PageRequest page = PageRequest.parse(exchange, "tasks");
+                        Status status = parseStatusFilter(exchange, page);
+                        if (notModified(exchange, taskManager.getVersion(CollectionType.TASKS))) {
+                            break;
+                        }
+                        if (status != null) { // Колонка доски по индексу статусов
+                            sendTasks(exchange, taskManager.getByStatus(TaskType.TASK, status), 200);
+                        } else if (page == null) {
+                            sendTasks(exchange, taskManager.getAllTasks(), 200);
+                        } else { // Лишний элемент показывает, есть ли следующая страница
+                            List<Task> tasks = taskManager.getTasks(page.getAfterId(), page.getLimit() + 1);
+                            sendPage(exchange, tasks, page, item -> page.next(item.getId()));
+                        }
                     } else {
                         int id = Integer.parseInt(path.substring(path.lastIndexOf("/") + 1));
                         Task task = taskManager.getTaskById(id);
                         if (task != null) {
-                            sendText(exchange, gson.toJson(task), 200);
+                            sendJson(exchange, task, 200);
                         } else {
                             sendNotFound(exchange);
                         }
                     }
                     break;
                 case "POST":
+                    if (path.equals("/tasks/batch")) { // Пакетное создание: JSON-массив разбирается потоково
+                        sendBatchResult(exchange, taskManager.addTasks(readJsonArray(exchange, Task.class)));
+                        break;
+                    }
                     Task newTask = gson.fromJson(new String(exchange.getRequestBody().readAllBytes()), Task.class);
 
                     // Проверяем, новая это задача или обновление существующей
                     if (newTask.getId() == 0) { // Новая задача
-                        if (taskManager.isTaskOverlapping(newTask)) {
-                            sendHasInteractions(exchange);
-                        } else {
-                            taskManager.addTask(newTask);
-                            sendText(exchange, "Задача создана.", 201);
-                        }
+                        taskManager.addTask(newTask); // Проверка пересечения выполняется атомарно вместе с вставкой
+                        sendText(exchange, "Задача создана.", 201);
                     } else {
                         Task existing = taskManager.getTaskById(newTask.getId()); // Обновление существующей задачи
                         if (existing == null) {
                             sendNotFound(exchange);
                             break;
                         }
-                        if (taskManager.isTaskOverlapping(newTask)) {
-                            sendHasInteractions(exchange);
-                        } else {
-                            taskManager.updateTask(newTask);
-                            sendText(exchange, "Задача обновлена.", 200);
-                        }
+                        taskManager.updateTask(newTask);
+                        sendText(exchange, "Задача обновлена.", 200);
                     }
                     break;
                 case "DELETE":
@@ -74,6 +89,10 @@ public class TasksHandler extends BaseHttpHandler implements HttpHandler {
                     }
                     break;
             }
+        } catch (TaskOverlapException e) {
+            sendHasInteractions(exchange, taskManager, e.getTask());
+        } catch (BadRequestException e) {
+            sendBadRequest(exchange);
         } catch (IOException e) {
             sendInternalError(exchange);
         } catch (Exception e) {
@@ -0,0 +1,118 @@
+package server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/* Буферизованная запись символов в поток в UTF-8 для потоковой отдачи JSON.
+   Символы кодируются прямо в буфер фиксированного размера, который сбрасывается в поток по заполнении,
+   поэтому память на ответ не зависит от его размера. Писатель создаётся на один ответ: общий пул отдал бы
+   экземпляр следующему запросу, пока прежний владелец ещё может писать в него после close() */
+class Utf8StreamWriter extends Writer {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private OutputStream out;
+    private int position;
+    private char highSurrogate; // Первая половина суррогатной пары, пришедшая в конце предыдущей записи
+
+    Utf8StreamWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        writeChar((char) c);
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            writeChar(chars[i]);
+        }
+    }
+
+    @Override
+    public void write(String text, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            writeChar(text.charAt(i));
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException { // Повторный вызов ничего не делает
+        if (out == null) {
+            return;
+        }
+        try {
+            if (highSurrogate != 0) {
+                writeCodePoint('?');
+            }
+            flushBuffer();
+            out.close();
+        } finally {
+            out = null;
+        }
+    }
+
+    private void writeChar(char c) throws IOException {
+        ensureOpen();
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                writeCodePoint(Character.toCodePoint(high, c));
+                return;
+            }
+            writeCodePoint('?'); // Непарная половина суррогатной пары, как в стандартном кодировщике
+        }
+        if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            writeCodePoint('?');
+        } else {
+            writeCodePoint(c);
+        }
+    }
+
+    private void writeCodePoint(int codePoint) throws IOException {
+        if (position > BUFFER_SIZE - 4) {
+            flushBuffer();
+        }
+        if (codePoint < 0x80) {
+            buffer[position++] = (byte) codePoint;
+        } else if (codePoint < 0x800) {
+            buffer[position++] = (byte) (0xC0 | codePoint >> 6);
+            buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+        } else if (codePoint < 0x10000) {
+            buffer[position++] = (byte) (0xE0 | codePoint >> 12);
+            buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+        } else {
+            buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+            buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+            buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (out == null) {
+            throw new IOException("Поток ответа уже закрыт");
+        }
+    }
+}
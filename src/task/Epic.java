@@ -1,16 +1,20 @@
 package task;
 
+import collection.IntHashSet;
+import collection.IntObjectHashMap;
 import tools.Status;
 import tools.TaskType;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 public class Epic extends Task {
-    private List<Integer> subTaskIds = new ArrayList<>();
+    private IntHashSet subTaskIds = new IntHashSet();
+    private transient SubTaskAggregates aggregates = new SubTaskAggregates();
 
     public Epic(String name, String description, Status status) {
         super(name, description, status);
@@ -20,67 +24,74 @@ public class Epic extends Task {
         super(name, description, status, duration, startTime);
     }
 
-    public List<Integer> getSubTaskIds() {
+    public IntHashSet getSubTaskIds() { // Множество id подзадач в порядке их добавления
+        if (subTaskIds == null) { // Gson оставляет поле пустым, если в JSON нет списка подзадач
+            subTaskIds = new IntHashSet();
+        }
         return subTaskIds;
     }
 
-    protected List<SubTask> getSubTasks() {
-        return Collections.emptyList();
+    public void addSubTask(SubTask subTask) { // Привязывает подзадачу к эпику и учитывает её в агрегатах
+        getSubTaskIds().add(subTask.getId());
+        aggregates().put(subTask);
+    }
+
+    public void updateSubTask(SubTask subTask) { // Заменяет вклад подзадачи новыми статусом и временем
+        aggregates().put(subTask);
+    }
+
+    public void removeSubTask(int subTaskId) {
+        getSubTaskIds().remove(subTaskId);
+        aggregates().remove(subTaskId);
+    }
+
+    public void clearSubTasks() {
+        getSubTaskIds().clear();
+        aggregates().clear();
+    }
+
+    public void copySubTasksFrom(Epic epic) { // Переносит подзадачи с прежней версии эпика при его обновлении
+        subTaskIds = new IntHashSet(epic.getSubTaskIds());
+        aggregates = epic.aggregates().copy();
     }
 
-    public void addSubTaskId(int subTaskId) {
-        subTaskIds.add(subTaskId);
+    public int getSubTaskCount() {
+        return aggregates().size();
+    }
+
+    public int getSubTaskCount(Status status) {
+        return aggregates().count(status);
     }
 
     @Override
     public Duration getDuration() {
-        List<SubTask> subTasks = getSubTasks();
-        if (subTaskIds.isEmpty()) {
+        if (getSubTaskIds().isEmpty()) {
             return Duration.ZERO;
         }
-
-        return Duration.ofMinutes(
-                subTasks.stream()
-                        .filter(subTask -> subTask != null)
-                        .mapToLong(subTask -> {
-                            Duration duration = subTask.getDuration();
-                            if (duration != null) {
-                                return duration.toMinutes();
-                            }
-                            return 0;
-                        })
-                        .sum()
-        );
+        return Duration.ofMinutes(aggregates().durationMinutes);
     }
 
     @Override
-    public LocalDateTime getStartTime() { // Метод, определяющий самое раннее время начала среди подзадач эпика
-        List<SubTask> subTasks = getSubTasks();
-        if (subTaskIds.isEmpty()) {
+    public LocalDateTime getStartTime() { // Самое раннее время начала среди подзадач эпика
+        if (getSubTaskIds().isEmpty() || aggregates().starts.isEmpty()) {
             return null;
         }
-
-        return subTasks.stream()
-                .filter(subTask -> subTask != null)
-                .map(SubTask::getStartTime)
-                .filter(startTime -> startTime != null)
-                .min(LocalDateTime::compareTo)
-                .orElse(null);
+        return aggregates().starts.firstKey();
     }
 
     @Override
-    public LocalDateTime getEndTime() {
-        List<SubTask> subTasks = getSubTasks();
-        if (subTaskIds.isEmpty()) {
+    public LocalDateTime getEndTime() { // Самое позднее время окончания среди подзадач эпика
+        if (getSubTaskIds().isEmpty() || aggregates().ends.isEmpty()) {
             return null;
         }
+        return aggregates().ends.lastKey();
+    }
 
-        return subTasks.stream()
-                .filter(subTask -> subTask != null)
-                .map(SubTask::getEndTime)
-                .filter(obj -> obj != null)
-                .max(LocalDateTime::compareTo)
-                .orElse(null);
+    private SubTaskAggregates aggregates() { // Gson создаёт объекты без конструктора, поэтому поле может быть null
+        if (aggregates == null) {
+            aggregates = new SubTaskAggregates();
+        }
+        return aggregates;
     }
 
     @Override
@@ -97,7 +108,7 @@ public class Epic extends Task {
                 ", status=" + getStatus() +
                 ", startTime=" + getStartTime() +
                 ", endTime=" + getEndTime() +
-                ", subTaskIds=" + subTaskIds +
+                ", subTaskIds=" + getSubTaskIds() +
                 '}';
     }
 
@@ -124,15 +135,100 @@ public class Epic extends Task {
             endTimeStr = "null";
         }
 
-        return String.format("%d,%s,%s,%s,%s,%d,%s,%s,%s",
-                getId(),
-                getType().name(),
-                getName(),
-                getStatus().name(),
-                getDescription(),
-                durationMinutes,
-                startTimeStr,
-                endTimeStr,
-                subTaskIds);
+        return getId() + "," + getType().name() + "," + getName() + "," + getStatus().name() + ","
+                + getDescription() + "," + durationMinutes + "," + startTimeStr + "," + endTimeStr + ","
+                + getSubTaskIds();
+    }
+
+    /* Агрегаты по подзадачам эпика, обновляемые при каждом изменении подзадачи: счётчики статусов,
+       суммарная длительность и мультимножества времён начала и окончания. Для каждой подзадачи хранится
+       учтённый вклад, поэтому его можно вычесть, даже если объект подзадачи уже изменён.
+       Статус и длительность получаются за O(1), время начала и окончания - за O(log k) */
+    private static class SubTaskAggregates {
+        private final IntObjectHashMap<Contribution> contributions = new IntObjectHashMap<>();
+        private final Map<Status, Integer> statusCounts = new EnumMap<>(Status.class);
+        private final NavigableMap<LocalDateTime, Integer> starts = new TreeMap<>();
+        private final NavigableMap<LocalDateTime, Integer> ends = new TreeMap<>();
+        private long durationMinutes;
+
+        int size() {
+            return contributions.size();
+        }
+
+        int count(Status status) {
+            return statusCounts.getOrDefault(status, 0);
+        }
+
+        void put(SubTask subTask) {
+            remove(subTask.getId());
+            Contribution contribution = new Contribution(subTask);
+            contributions.put(subTask.getId(), contribution);
+            if (contribution.status != null) {
+                statusCounts.merge(contribution.status, 1, Integer::sum);
+            }
+            durationMinutes += contribution.minutes;
+            increment(starts, contribution.start);
+            increment(ends, contribution.end);
+        }
+
+        void remove(int subTaskId) {
+            Contribution contribution = contributions.remove(subTaskId);
+            if (contribution == null) {
+                return;
+            }
+            if (contribution.status != null) {
+                statusCounts.merge(contribution.status, -1, Integer::sum);
+            }
+            durationMinutes -= contribution.minutes;
+            decrement(starts, contribution.start);
+            decrement(ends, contribution.end);
+        }
+
+        void clear() {
+            contributions.clear();
+            statusCounts.clear();
+            starts.clear();
+            ends.clear();
+            durationMinutes = 0;
+        }
+
+        SubTaskAggregates copy() {
+            SubTaskAggregates copy = new SubTaskAggregates();
+            contributions.values().forEach(contribution -> copy.contributions.put(contribution.id, contribution));
+            copy.statusCounts.putAll(statusCounts);
+            copy.starts.putAll(starts);
+            copy.ends.putAll(ends);
+            copy.durationMinutes = durationMinutes;
+            return copy;
+        }
+
+        private static void increment(NavigableMap<LocalDateTime, Integer> times, LocalDateTime time) {
+            if (time != null) {
+                times.merge(time, 1, Integer::sum);
+            }
+        }
+
+        private static void decrement(NavigableMap<LocalDateTime, Integer> times, LocalDateTime time) {
+            if (time != null) {
+                times.computeIfPresent(time, (key, count) -> count == 1 ? null : count - 1);
+            }
+        }
+    }
+
+    private static class Contribution {
+        final int id;
+        final Status status;
+        final long minutes;
+        final LocalDateTime start;
+        final LocalDateTime end;
+
+        Contribution(SubTask subTask) {
+            Duration duration = subTask.getDuration();
+            this.id = subTask.getId();
+            this.status = subTask.getStatus();
+            this.minutes = duration != null ? duration.toMinutes() : 0;
+            this.start = subTask.getStartTime();
+            this.end = subTask.getEndTime();
+        }
     }
-}
\ No newline at end of file
+}
@@ -58,14 +58,7 @@ public class SubTask extends Task {
             startTimeStr = "null";
         }
 
-        return String.format("%d,%s,%s,%s,%s,%d,%s,%d",
-                getId(),
-                getType().name(),
-                getName(),
-                getStatus().name(),
-                getDescription(),
-                durationValue,
-                startTimeStr,
-                getEpicId());
+        return getId() + "," + getType().name() + "," + getName() + "," + getStatus().name() + ","
+                + getDescription() + "," + durationValue + "," + startTimeStr + "," + getEpicId();
     }
 }
\ No newline at end of file
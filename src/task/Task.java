@@ -104,14 +104,8 @@ public class Task {
             startTimeString = "null";
         }
 
-        return String.format("%d,%s,%s,%s,%s,%d,%s",
-                getId(),
-                getType().name(),
-                getName(),
-                getStatus().name(),
-                getDescription(),
-                durationMinutes,
-                startTimeString);
+        return getId() + "," + getType().name() + "," + getName() + "," + getStatus().name() + ","
+                + getDescription() + "," + durationMinutes + "," + startTimeString;
     }
 
     public Duration getDuration() {
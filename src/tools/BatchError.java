@@ -0,0 +1,8 @@
+package tools;
+
+public enum BatchError { // Почему элемент пакета отклонён
+    NOT_FOUND, // Нет задачи или эпика, на которые ссылается элемент
+    OVERLAP, // Пересечение по времени
+    INVALID, // Элемент не подходит для операции (например, у задачи нет длительности)
+    NO_FREE_SLOT // Для задачи нет свободного времени в горизонте планирования
+}
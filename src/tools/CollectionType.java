@@ -0,0 +1,9 @@
+package tools;
+
+public enum CollectionType { // Коллекции менеджера, у каждой из которых своя версия изменений
+    TASKS,
+    EPICS,
+    SUBTASKS,
+    PRIORITIZED,
+    HISTORY
+}
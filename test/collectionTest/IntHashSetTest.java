@@ -0,0 +1,40 @@
+package collectionTest;
+
+import collection.IntHashSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntHashSetTest {
+    @Test // Проверка добавления, удаления и порядка обхода множества
+    void testAddRemoveAndOrder() {
+        IntHashSet set = new IntHashSet();
+        assertTrue(set.add(5), "Новый элемент должен добавиться");
+        assertTrue(set.add(1));
+        assertTrue(set.add(3));
+        assertFalse(set.add(5), "Повторный элемент не должен добавиться");
+
+        assertTrue(set.remove(1), "Элемент должен удалиться");
+        assertFalse(set.contains(1), "Удалённого элемента не должно быть в множестве");
+        set.add(1);
+
+        assertEquals(List.of(5, 3, 1), List.copyOf(set), "Обход должен идти в порядке добавления");
+        assertArrayEquals(new int[]{5, 3, 1}, set.toIntArray(), "Массив должен идти в порядке добавления");
+        assertTrue(set.contains(Integer.valueOf(3)), "Set<Integer> должен находить упакованные значения");
+    }
+
+    @Test // Многократные добавления и удаления не должны раздувать множество
+    void testChurn() {
+        IntHashSet set = new IntHashSet();
+        for (int i = 0; i < 100_000; i++) {
+            set.add(i);
+            set.remove(i - 10);
+        }
+
+        assertEquals(10, set.size(), "В множестве должны остаться последние 10 элементов");
+        assertTrue(set.contains(99_999), "Последний элемент должен быть в множестве");
+        assertFalse(set.contains(99_989), "Удалённый элемент не должен быть в множестве");
+    }
+}
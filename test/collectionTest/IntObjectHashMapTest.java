@@ -0,0 +1,70 @@
+package collectionTest;
+
+import collection.IntObjectHashMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntObjectHashMapTest {
+    @Test // Проверка добавления, замены и удаления с ростом таблицы
+    void testPutGetRemove() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, "Значение " + i);
+        }
+
+        assertEquals(1000, map.size(), "Все ключи должны быть добавлены");
+        assertEquals("Значение 500", map.get(500), "Значение должно находиться по ключу");
+        assertEquals("Значение 500", map.put(500, "Новое значение"), "put должен вернуть прежнее значение");
+        assertEquals("Новое значение", map.get(500), "Значение должно быть заменено");
+
+        for (int i = 0; i < 1000; i += 2) {
+            map.remove(i);
+        }
+        assertEquals(500, map.size(), "Удалённые ключи не должны учитываться");
+        assertNull(map.get(2), "Удалённый ключ не должен находиться");
+        assertTrue(map.containsKey(3), "Оставшиеся ключи должны находиться");
+        assertNull(map.remove(2), "Повторное удаление должно вернуть null");
+    }
+
+    @Test // Значения обходятся в порядке вставки, в том числе после удалений и перестроения таблицы
+    void testInsertionOrder() {
+        IntObjectHashMap<Integer> map = new IntObjectHashMap<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(i * 7, i);
+            if (i % 3 == 0) {
+                map.remove(i * 7);
+            } else {
+                expected.add(i);
+            }
+        }
+        map.put(7, -1); // Замена значения не меняет его место
+
+        expected.set(0, -1);
+        assertEquals(expected, new ArrayList<>(map.values()), "Порядок обхода должен совпадать с порядком вставки");
+
+        map.clear();
+        assertTrue(map.isEmpty(), "После очистки отображение должно быть пустым");
+        assertTrue(map.values().isEmpty(), "После очистки значений быть не должно");
+    }
+
+    @Test // Значения после ключа отдаются по возрастанию ключей и при добавлении не по порядку
+    void testValuesAfter() {
+        IntObjectHashMap<Integer> sorted = new IntObjectHashMap<>();
+        IntObjectHashMap<Integer> unsorted = new IntObjectHashMap<>();
+        for (int i = 1; i <= 20; i++) {
+            sorted.put(i, i);
+            unsorted.put(21 - i, 21 - i);
+        }
+        sorted.remove(6);
+        unsorted.remove(6);
+
+        assertEquals(List.of(5, 7, 8), sorted.valuesAfter(4, 3), "Страница должна пропускать удалённые ключи");
+        assertEquals(List.of(5, 7, 8), unsorted.valuesAfter(4, 3), "Порядок должен быть по возрастанию ключей");
+        assertTrue(sorted.valuesAfter(20, 5).isEmpty(), "После последнего ключа значений нет");
+    }
+}
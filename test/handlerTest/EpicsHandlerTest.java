@@ -130,4 +130,20 @@ public class EpicsHandlerTest {
 
         assertEquals(404, response.statusCode());
     }
-}
\ No newline at end of file
+
+    // Проверяем, что список эпиков из кэша JSON обновляется, когда эпик меняется через подзадачи
+    @Test
+    void testGetEpicsAfterSubTaskChanges() throws Exception {
+        Epic epic = new Epic("Эпик № 1", "Описание эпика № 1", Status.NEW);
+        taskManager.addEpic(epic);
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/epics")).GET().build();
+        assertEquals(gson.toJson(taskManager.getAllEpics()),
+                client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+
+        taskManager.addSubTask(new SubTask("Подзадача № 1", "Описание подзадачи № 1", Status.DONE, epic.getId()));
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(gson.toJson(taskManager.getAllEpics()), response.body(),
+                "Статус и подзадачи эпика должны быть новыми, а не из кэша");
+        assertEquals(Status.DONE, gson.fromJson(response.body(), Epic[].class)[0].getStatus());
+    }
+}
@@ -7,6 +7,8 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import server.HttpTaskServer;
+import task.Epic;
+import task.SubTask;
 import task.Task;
 import tools.Status;
 
@@ -20,6 +22,7 @@ import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class HistoryHandlerTest {
     protected TaskManager taskManager;
@@ -57,4 +60,36 @@ public class HistoryHandlerTest {
         assertEquals(200, response.statusCode());
         assertFalse(response.body().isEmpty());
     }
+
+    // Проверяем, что смена статуса эпика из истории через подзадачу не даёт устаревший ответ 304
+    @Test
+    void testHistoryModifiedByEpicStatus() throws Exception {
+        Epic epic = new Epic("Эпик № 1", "Описание эпика № 1", Status.NEW);
+        taskManager.addEpic(epic);
+        SubTask subtask = new SubTask("Подзадача № 1", "Описание подзадачи № 1", Status.NEW, epic.getId());
+        taskManager.addSubTask(subtask);
+        taskManager.getEpicById(epic.getId());
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/history"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        String etag = response.headers().firstValue("ETag").orElseThrow();
+
+        HttpRequest conditional = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/history"))
+                .header("If-None-Match", etag)
+                .GET()
+                .build();
+        assertEquals(304, client.send(conditional, HttpResponse.BodyHandlers.ofString()).statusCode(),
+                "Неизменившаяся история не должна отдаваться заново");
+
+        SubTask done = new SubTask("Подзадача № 1", "Описание подзадачи № 1", Status.DONE, epic.getId());
+        done.setId(subtask.getId());
+        taskManager.updateSubTask(done);
+        HttpResponse<String> modified = client.send(conditional, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, modified.statusCode(), "После смены статуса эпика история должна отдаваться заново");
+        assertTrue(modified.body().contains("DONE"), "История должна содержать новый статус эпика");
+    }
 }
@@ -0,0 +1,108 @@
+package handlerTest;
+
+import com.google.gson.Gson;
+import manager.Managers;
+import manager.TaskManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.HttpTaskServer;
+import server.ServerConfig;
+import task.Task;
+import tools.Status;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HttpTaskServerTest {
+    protected TaskManager taskManager;
+    protected HttpTaskServer taskServer;
+    protected Gson gson;
+    protected HttpClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        taskManager = Managers.getConcurrent();
+        ServerConfig config = ServerConfig.defaults()
+                .withVirtualThreads()
+                .withShutdownTimeout(Duration.ofSeconds(1));
+        taskServer = new HttpTaskServer(taskManager, config);
+        gson = taskServer.createGson();
+        client = HttpClient.newHttpClient();
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void stop() {
+        taskServer.stop();
+    }
+
+    // Проверяем параллельное создание задач при многопоточной обработке запросов
+    @Test
+    void testParallelRequests() {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Task task = new Task("Задача № " + i, "Описание задачи № " + i, Status.NEW);
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/tasks"))
+                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(task)))
+                    .build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(201, response.join().statusCode(), "Каждая задача должна быть создана");
+        }
+        assertEquals(50, taskManager.getAllTasks().size(), "Все задачи должны быть сохранены");
+    }
+
+    // Проверяем сжатие большого списка по Accept-Encoding и отсутствие сжатия у маленького ответа
+    @Test
+    void testCompressedResponses() throws Exception {
+        for (int i = 0; i < 300; i++) {
+            taskManager.addTask(new Task("Подготовить отчёт № " + i, "Собрать данные и согласовать отчёт", Status.NEW));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .header("Accept-Encoding", "gzip, deflate")
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(""),
+                "Большой список должен сжиматься");
+
+        byte[] json;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            json = in.readAllBytes();
+        }
+        assertEquals(gson.toJson(taskManager.getAllTasks()), new String(json, StandardCharsets.UTF_8),
+                "Распакованный ответ должен совпадать с несжатым");
+        assertTrue(response.body().length * 5 < json.length, "Сжатие должно уменьшить ответ хотя бы в 5 раз");
+
+        HttpRequest small = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks/1"))
+                .header("Accept-Encoding", "deflate")
+                .GET()
+                .build();
+        HttpResponse<String> smallResponse = client.send(small, HttpResponse.BodyHandlers.ofString());
+        assertTrue(smallResponse.headers().firstValue("Content-Encoding").isEmpty(),
+                "Ответ меньше порога не должен сжиматься");
+        assertEquals(1, taskServer.getCompressionStats().getCompressedResponses(), "Сжат должен быть один ответ");
+    }
+}
@@ -0,0 +1,63 @@
+package handlerTest;
+
+import manager.InMemoryTaskManager;
+import manager.TaskManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.HttpTaskServer;
+import task.Task;
+import tools.Status;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetricsHandlerTest {
+    protected TaskManager taskManager;
+    protected HttpTaskServer taskServer;
+    protected HttpClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        taskManager = new InMemoryTaskManager();
+        taskServer = new HttpTaskServer(taskManager);
+        client = HttpClient.newHttpClient();
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void stop() {
+        taskServer.stop();
+    }
+
+    // Запросы к API попадают в метрики контекста и менеджера, размеры коллекций выдаются показателями
+    @Test
+    void testGetMetrics() throws Exception {
+        taskManager.addTask(new Task("Задача", "Описание", Status.NEW));
+        assertEquals(200, get("/tasks").statusCode());
+        assertEquals(404, get("/tasks/100").statusCode());
+
+        HttpResponse<String> response = get("/metrics");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/plain"));
+
+        String text = response.body();
+        assertTrue(text.contains("http_request_duration_seconds_count{context=\"/tasks\"} 2\n"), text);
+        assertTrue(text.contains("http_responses_total{context=\"/tasks\",code=\"2xx\"} 1\n"), text);
+        assertTrue(text.contains("http_responses_total{context=\"/tasks\",code=\"4xx\"} 1\n"), text);
+        assertTrue(text.contains("taskmanager_operation_seconds_count{op=\"getAllTasks\"} 1\n"), text);
+        assertTrue(text.contains("taskmanager_tasks{type=\"TASK\"} 1\n"), text);
+        assertTrue(text.contains("taskmanager_history_size 0\n"), text);
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080" + path)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -1,6 +1,7 @@
 package handlerTest;
 
 import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
 import manager.InMemoryTaskManager;
 import manager.TaskManager;
 import org.junit.jupiter.api.AfterEach;
@@ -17,6 +18,7 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -67,4 +69,36 @@ public class PrioritizedHandlerTest {
         assertTrue(indexOfTask1 < indexOfTask2,
                 "Тестовая задача № 1 должна быть перед тестовой задачей № 2 в приоритизированном списке");
     }
+
+    // Проверяем выборку по окну времени и отказ на некорректные границы
+    @Test
+    void testGetPrioritizedTasksInRange() throws Exception {
+        LocalDateTime day = LocalDateTime.of(2025, 5, 1, 0, 0);
+        Task night = new Task("Ночная задача", "Идёт через полночь", Status.NEW, Duration.ofHours(2),
+                day.minusHours(1));
+        Task morning = new Task("Утренняя задача", "Описание", Status.NEW, Duration.ofHours(1), day.plusHours(9));
+        Task nextDay = new Task("Задача следующего дня", "Описание", Status.NEW, Duration.ofHours(1),
+                day.plusDays(1));
+        taskManager.addTask(night);
+        taskManager.addTask(morning);
+        taskManager.addTask(nextDay);
+        taskManager.addTask(new Task("Задача без времени", "Описание", Status.NEW));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized?from=" + day + "&to=" + day.plusDays(1)))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        List<Task> tasks = gson.fromJson(response.body(), new TypeToken<List<Task>>() {
+        }.getType());
+        assertEquals(List.of(night, morning), tasks, "В окно входят задачи дня и задача, идущая через его начало");
+
+        HttpRequest invalid = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized?from=" + day + "&to=" + day.minusDays(1)))
+                .GET()
+                .build();
+        assertEquals(400, client.send(invalid, HttpResponse.BodyHandlers.ofString()).statusCode(),
+                "Конец окна раньше начала - 400");
+    }
 }
@@ -0,0 +1,95 @@
+package handlerTest;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import manager.InMemoryTaskManager;
+import manager.TaskManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.HttpTaskServer;
+import task.Task;
+import tools.Status;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ScheduleHandlerTest {
+    protected TaskManager taskManager;
+    protected HttpTaskServer taskServer;
+    protected Gson gson;
+    protected HttpClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        taskManager = new InMemoryTaskManager();
+        taskServer = new HttpTaskServer(taskManager);
+        gson = taskServer.createGson();
+        client = HttpClient.newHttpClient();
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void stop() {
+        taskServer.stop();
+    }
+
+    // Проверяем пробное и настоящее планирование задач без времени
+    @Test
+    void testScheduleTasks() throws Exception {
+        LocalDateTime day = LocalDateTime.of(2025, 5, 1, 9, 0);
+        taskManager.addTask(new Task("Встреча", "Описание встречи", Status.NEW, Duration.ofHours(1), day));
+        Task task = new Task("Задача № 1", "Описание задачи № 1", Status.NEW, Duration.ofMinutes(45), null);
+        taskManager.addTask(task);
+        String body = "{\"from\": \"" + day + "\", \"to\": \"" + day.plusHours(8) + "\"}";
+
+        HttpRequest dryRun = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/schedule?dryRun=true"))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = client.send(dryRun, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        JsonArray results = JsonParser.parseString(response.body()).getAsJsonArray();
+        JsonObject item = results.get(0).getAsJsonObject();
+        assertEquals(task.getId(), item.get("id").getAsInt());
+        assertEquals(day.plusHours(1), LocalDateTime.parse(item.get("startTime").getAsString()),
+                "Задача должна встать сразу после встречи");
+        assertNull(task.getStartTime(), "Пробный запуск не меняет задачу");
+
+        HttpRequest apply = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/schedule"))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        assertEquals(200, client.send(apply, HttpResponse.BodyHandlers.ofString()).statusCode());
+        assertEquals(day.plusHours(1), taskManager.getTaskById(task.getId()).getStartTime(),
+                "Задача должна получить время начала");
+
+        HttpRequest invalid = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/schedule"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"to\": \"" + day + "\"}"))
+                .build();
+        assertEquals(400, client.send(invalid, HttpResponse.BodyHandlers.ofString()).statusCode(),
+                "Без начала горизонта - 400");
+    }
+
+    // Проверяем, что пустой id в списке задач отклоняется ответом 400, а не обрывом соединения
+    @Test
+    void testScheduleNullId() throws Exception {
+        LocalDateTime day = LocalDateTime.of(2025, 5, 1, 9, 0);
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/schedule"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"from\": \"" + day + "\", \"ids\": [1, null]}"))
+                .build();
+        assertEquals(400, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+}
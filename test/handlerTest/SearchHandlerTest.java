@@ -0,0 +1,80 @@
+package handlerTest;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import manager.InMemoryTaskManager;
+import manager.TaskManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.HttpTaskServer;
+import task.Epic;
+import task.SubTask;
+import task.Task;
+import tools.Status;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SearchHandlerTest {
+    protected TaskManager taskManager;
+    protected HttpTaskServer taskServer;
+    protected Gson gson;
+    protected HttpClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        taskManager = new InMemoryTaskManager();
+        taskServer = new HttpTaskServer(taskManager);
+        gson = taskServer.createGson();
+        client = HttpClient.newHttpClient();
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void stop() {
+        taskServer.stop();
+    }
+
+    // Проверяем поиск по словам с фильтром по типу и ограничением числа результатов
+    @Test
+    void testSearch() throws Exception {
+        taskManager.addTask(new Task("Отчёт за квартал", "Собрать цифры продаж", Status.NEW));
+        Epic epic = new Epic("Годовой отчёт", "Отчёты всех отделов", Status.NEW);
+        taskManager.addEpic(epic);
+        taskManager.addSubTask(new SubTask("Отчёт отдела продаж", "Цифры за год", Status.NEW, epic.getId()));
+
+        JsonArray all = search("отчет продаж", "");
+        assertEquals(2, all.size(), "Оба слова есть у задачи и подзадачи");
+        JsonArray subTasks = search("отчет продаж", "&type=subtask");
+        assertEquals(1, subTasks.size(), "Фильтр по типу оставляет только подзадачу");
+        assertEquals("Отчёт отдела продаж", subTasks.get(0).getAsJsonObject().get("name").getAsString());
+        assertEquals(1, search("отч", "&limit=1").size(), "Не больше limit результатов");
+
+        HttpRequest invalid = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/search?q="))
+                .GET()
+                .build();
+        assertEquals(400, client.send(invalid, HttpResponse.BodyHandlers.ofString()).statusCode(),
+                "Пустой запрос - 400");
+    }
+
+    private JsonArray search(String text, String parameters) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/search?q=" + URLEncoder.encode(text, StandardCharsets.UTF_8)
+                        + parameters))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        return JsonParser.parseString(response.body()).getAsJsonArray();
+    }
+}
@@ -1,6 +1,8 @@
 package handlerTest;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
 import manager.InMemoryTaskManager;
 import manager.TaskManager;
 import org.junit.jupiter.api.AfterEach;
@@ -18,6 +20,7 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -129,4 +132,56 @@ public class SubtasksHandlerTest {
         assertFalse(taskManager.getEpicById(epic.getId()).getSubTaskIds().contains(subTask.getId()),
                 "Эпик не должен содержать ID удаленной подзадачи.");
     }
+
+    // Проверяем пакетное создание подзадач: подзадача без эпика получает 404, остальные создаются
+    @Test
+    void testAddSubTasksBatch() throws Exception {
+        Epic epic = new Epic("Тестовый эпик № 1", "Описание тестового эпика № 1", Status.NEW);
+        taskManager.addEpic(epic);
+        List<SubTask> batch = List.of(
+                new SubTask("Подзадача № 1", "Описание подзадачи № 1", Status.DONE, epic.getId()),
+                new SubTask("Подзадача № 2", "Описание подзадачи № 2", Status.NEW, epic.getId() + 100),
+                new SubTask("Подзадача № 3", "Описание подзадачи № 3", Status.DONE, epic.getId()));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/subtasks/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(batch)))
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        JsonArray results = JsonParser.parseString(response.body()).getAsJsonArray();
+        assertEquals(201, results.get(0).getAsJsonObject().get("status").getAsInt());
+        assertEquals(404, results.get(1).getAsJsonObject().get("status").getAsInt(), "Эпик не найден - 404");
+        assertEquals(201, results.get(2).getAsJsonObject().get("status").getAsInt());
+        assertEquals(2, taskManager.getSubTasksByEpicId(epic.getId()).size());
+        assertEquals(Status.DONE, taskManager.getEpicById(epic.getId()).getStatus(),
+                "Статус эпика должен учитывать подзадачи пакета");
+    }
+
+    // Проверяем фильтр списка подзадач по статусу
+    @Test
+    void testGetSubTasksByStatus() throws Exception {
+        Epic epic = new Epic("Тестовый эпик № 1", "Описание тестового эпика № 1", Status.NEW);
+        taskManager.addEpic(epic);
+        taskManager.addSubTask(new SubTask("Подзадача № 1", "Описание подзадачи № 1", Status.NEW, epic.getId()));
+        taskManager.addSubTask(new SubTask("Подзадача № 2", "Описание подзадачи № 2", Status.DONE, epic.getId()));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/subtasks?status=DONE"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        JsonArray subTasks = JsonParser.parseString(response.body()).getAsJsonArray();
+        assertEquals(1, subTasks.size(), "В колонке DONE одна подзадача");
+        assertEquals("Подзадача № 2", subTasks.get(0).getAsJsonObject().get("name").getAsString());
+
+        HttpRequest invalid = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/subtasks?status=BLOCKED"))
+                .GET()
+                .build();
+        assertEquals(400, client.send(invalid, HttpResponse.BodyHandlers.ofString()).statusCode(),
+                "Неизвестный статус - 400");
+    }
 }
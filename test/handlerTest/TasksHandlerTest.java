@@ -1,6 +1,10 @@
 package handlerTest;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
 import manager.InMemoryTaskManager;
 import manager.TaskManager;
 import org.junit.jupiter.api.AfterEach;
@@ -17,8 +21,12 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TasksHandlerTest {
@@ -145,5 +153,168 @@ public class TasksHandlerTest {
 
         assertEquals(406, response.statusCode(), "Должен вернуться статус 406 при конфликте времени.");
         assertEquals("Задача пересекается с существующими.", response.body());
+        assertEquals("2025-05-01T11:00/", response.headers().firstValue("X-Free-Slots").orElse(""),
+                "Ответ должен подсказывать ближайшее свободное время");
+    }
+
+    // Проверяем, что большой список отдаётся частями и совпадает с обычной сериализацией
+    @Test
+    void testGetTasksStreamsLargeList() throws Exception {
+        for (int i = 0; i < 5000; i++) {
+            taskManager.addTask(new Task("Задача № " + i + " \uD83D\uDE80", "Описание задачи № " + i, Status.NEW));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertEquals("chunked", response.headers().firstValue("Transfer-Encoding").orElse(""),
+                "Список должен отдаваться частями");
+        assertEquals(gson.toJson(taskManager.getAllTasks()), response.body(),
+                "Потоковый ответ должен совпадать с обычной сериализацией");
+    }
+
+    // Проверяем, что список задач можно прочитать страницами по курсору
+    @Test
+    void testGetTasksByPages() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            taskManager.addTask(new Task("Задача № " + i, "Описание задачи № " + i, Status.NEW));
+        }
+
+        List<Task> received = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            String query = "?limit=10" + (cursor == null ? "" : "&cursor=" + cursor);
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/tasks" + query))
+                    .GET()
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+
+            received.addAll(gson.fromJson(response.body(), new TypeToken<List<Task>>() {
+            }.getType()));
+            cursor = response.headers().firstValue("X-Next-Cursor").orElse(null);
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages, "25 задач по 10 должны уместиться в 3 страницы");
+        assertEquals(taskManager.getAllTasks(), received, "Страницы должны содержать все задачи по порядку");
+    }
+
+    // Проверяем, что некорректный курсор отклоняется
+    @Test
+    void testGetTasksWithInvalidCursor() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks?limit=10&cursor=aGlzdG9yeXwx"))
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode(), "Курсор истории не должен подходить к списку задач");
+    }
+
+    // Проверяем, что неизменившийся список отдаётся как 304 по If-None-Match
+    @Test
+    void testGetTasksNotModified() throws Exception {
+        taskManager.addTask(new Task("Задача № 1", "Описание задачи № 1", Status.NEW));
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        String etag = response.headers().firstValue("ETag").orElseThrow();
+
+        HttpRequest conditional = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .header("If-None-Match", etag)
+                .GET()
+                .build();
+        HttpResponse<String> notModified = client.send(conditional, HttpResponse.BodyHandlers.ofString());
+        assertEquals(304, notModified.statusCode(), "Неизменившийся список не должен отдаваться заново");
+        assertEquals("", notModified.body(), "Ответ 304 не должен содержать тела");
+
+        taskManager.addTask(new Task("Задача № 2", "Описание задачи № 2", Status.NEW));
+        HttpResponse<String> modified = client.send(conditional, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, modified.statusCode(), "После изменения список должен отдаваться заново");
+        assertNotEquals(etag, modified.headers().firstValue("ETag").orElseThrow(), "ETag должен измениться");
+    }
+
+    // Проверяем пакетное создание задач с итогом по каждому элементу
+    @Test
+    void testAddTasksBatch() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2025, 7, 1, 9, 0);
+        List<Task> batch = List.of(
+                new Task("Задача № 1", "Описание задачи № 1", Status.NEW, Duration.ofMinutes(60), start),
+                new Task("Задача № 2", "Описание задачи № 2", Status.NEW, Duration.ofMinutes(60),
+                        start.plusMinutes(30)),
+                new Task("Задача № 3", "Описание задачи № 3", Status.NEW));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(batch)))
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        JsonArray results = JsonParser.parseString(response.body()).getAsJsonArray();
+        assertEquals(3, results.size(), "Итог должен быть по каждому элементу пакета");
+
+        JsonObject created = results.get(0).getAsJsonObject();
+        assertEquals(201, created.get("status").getAsInt());
+        assertEquals("Задача № 1", taskManager.getTaskById(created.get("id").getAsInt()).getName(),
+                "В итоге должен быть id созданной задачи");
+        JsonObject overlapping = results.get(1).getAsJsonObject();
+        assertEquals(406, overlapping.get("status").getAsInt(), "Пересечение внутри пакета - 406");
+        assertTrue(overlapping.has("error"), "У отклонённого элемента должна быть причина");
+        assertEquals(201, results.get(2).getAsJsonObject().get("status").getAsInt());
+        assertEquals(2, taskManager.getAllTasks().size(), "Создаются только принятые задачи");
+    }
+
+    // Проверяем, что пакет, который не является JSON-массивом, отклоняется целиком
+    @Test
+    void testAddTasksBatchMalformed() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString("[{\"name\": \"Задача № 1\"}, {"))
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode(), "Некорректный JSON должен возвращать 400");
+        assertTrue(taskManager.getAllTasks().isEmpty(), "Из некорректного пакета ничего не создаётся");
+    }
+
+    // Проверяем, что сбой сериализации после отправки заголовков разрывает соединение, а не даёт обрезанный 200
+    @Test
+    void testSerializationFailureAbortsResponse() {
+        taskManager.addTask(new Task("Задача № 1", "Описание задачи № 1", Status.NEW));
+        taskManager.addTask(new UnserializableTask());
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .GET()
+                .build();
+        assertThrows(IOException.class, () -> client.send(request, HttpResponse.BodyHandlers.ofString()),
+                "Клиент не должен получить обрезанный список как успешный ответ");
+
+        HttpRequest compressed = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+        assertThrows(IOException.class, () -> client.send(compressed, HttpResponse.BodyHandlers.ofByteArray()),
+                "Буфер сжатия не должен уходить с Content-Length после сбоя");
+    }
+
+    private static class UnserializableTask extends Task { // Поле, которое Gson не может сериализовать
+        private final Thread owner = Thread.currentThread();
+
+        UnserializableTask() {
+            super("Задача № 2", "Описание задачи № 2", Status.NEW);
+        }
     }
 }
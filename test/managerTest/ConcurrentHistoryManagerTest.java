@@ -0,0 +1,90 @@
+package managerTest;
+
+import manager.ConcurrentHistoryManager;
+import org.junit.jupiter.api.Test;
+import task.Task;
+import tools.Status;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentHistoryManagerTest {
+    @Test // Просмотры из одного потока сохраняют порядок, повторный просмотр переносит задачу в конец
+    void testHistoryOrder() {
+        ConcurrentHistoryManager historyManager = new ConcurrentHistoryManager(10);
+        List<Task> tasks = createTasks(100);
+
+        tasks.forEach(historyManager::add);
+        historyManager.add(tasks.get(95));
+
+        List<Task> history = historyManager.getHistory();
+        assertEquals(10, history.size(), "История не должна превышать заданный размер");
+        assertEquals(tasks.get(90), history.getFirst(), "Старые просмотры должны быть вытеснены");
+        assertEquals(tasks.get(95), history.getLast(), "Последний просмотр должен быть в конце истории");
+    }
+
+    @Test // Удаление учитывает просмотры, ещё не перенесённые в историю
+    void testRemoveAfterView() {
+        ConcurrentHistoryManager historyManager = new ConcurrentHistoryManager(10);
+        Task task = new Task(1, "Тестовая задача", "Описание тестовой задачи", Status.NEW);
+
+        historyManager.add(task);
+        historyManager.remove(task.getId());
+
+        assertTrue(historyManager.getHistory().isEmpty(), "Удалённая задача не должна остаться в истории");
+    }
+
+    @Test // Размер учитывает ещё не перенесённые просмотры, повторный просмотр его не увеличивает
+    void testSizeCountsBufferedViews() {
+        ConcurrentHistoryManager historyManager = new ConcurrentHistoryManager(10);
+        List<Task> tasks = createTasks(3);
+
+        tasks.forEach(historyManager::add);
+        historyManager.add(tasks.getFirst());
+
+        assertEquals(3, historyManager.size(), "Размер должен совпадать с числом разных просмотренных задач");
+        assertEquals(historyManager.getHistory().size(), historyManager.size(),
+                "Размер должен совпадать с длиной истории");
+    }
+
+    @Test // Параллельные просмотры не теряются и не дублируются
+    void testConcurrentViews() throws Exception {
+        ConcurrentHistoryManager historyManager = new ConcurrentHistoryManager(1000);
+        List<Task> tasks = createTasks(500);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int thread = 0; thread < 8; thread++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10; i++) {
+                    tasks.forEach(historyManager::add);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        List<Task> history = historyManager.getHistory();
+        Set<Task> unique = new HashSet<>(history);
+        assertEquals(500, history.size(), "В истории должны быть все просмотренные задачи");
+        assertEquals(500, unique.size(), "Задачи в истории не должны повторяться");
+    }
+
+    private static List<Task> createTasks(int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            tasks.add(new Task(i, "Задача " + i, "Описание задачи " + i, Status.NEW));
+        }
+        return tasks;
+    }
+}
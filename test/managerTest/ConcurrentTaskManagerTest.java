@@ -0,0 +1,78 @@
+package managerTest;
+
+import manager.ConcurrentTaskManager;
+import manager.InMemoryTaskManager;
+import manager.Managers;
+import manager.TaskOverlapException;
+import org.junit.jupiter.api.Test;
+import task.Task;
+import tools.Status;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    @Override
+    protected ConcurrentTaskManager createTaskManager() {
+        return new ConcurrentTaskManager(new InMemoryTaskManager(Managers.getConcurrentHistory(1000)));
+    }
+
+    @Test // Проверяем, что при параллельном добавлении id не повторяются и задачи не теряются
+    void testConcurrentAddTask() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 1000; i++) {
+            int number = i;
+            futures.add(executor.submit(() -> {
+                taskManager.addTask(new Task("Задача № " + number, "Описание задачи", Status.NEW));
+                taskManager.getAllTasks();
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        List<Task> tasks = taskManager.getAllTasks();
+        Set<Integer> ids = new HashSet<>();
+        tasks.forEach(task -> ids.add(task.getId()));
+        assertEquals(1000, tasks.size(), "Все задачи должны быть добавлены");
+        assertEquals(1000, ids.size(), "Идентификаторы задач не должны повторяться");
+    }
+
+    @Test // Проверяем, что из задач на одно и то же время параллельно добавляется только одна
+    void testConcurrentOverlappingAdd() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            futures.add(executor.submit(() -> {
+                try {
+                    taskManager.addTask(new Task("Задача", "Описание задачи", Status.NEW,
+                            Duration.ofHours(1), LocalDateTime.of(2025, 5, 1, 10, 0)));
+                } catch (TaskOverlapException e) {
+                    rejected.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(1, taskManager.getPrioritizedTasks().size(), "Должна быть добавлена только одна задача");
+        assertEquals(99, rejected.get(), "Остальные задачи должны быть отклонены");
+    }
+}
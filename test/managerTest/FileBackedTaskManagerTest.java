@@ -1,6 +1,12 @@
 package managerTest;
 
 import manager.FileBackedTaskManager;
+import manager.LoadReport;
+import manager.ManagerSaveException;
+import manager.SnapshotConverter;
+import manager.SnapshotFormat;
+import manager.StorageConfig;
+import metrics.MetricsRegistry;
 import org.junit.jupiter.api.Test;
 import task.Epic;
 import task.SubTask;
@@ -9,9 +15,15 @@ import tools.Status;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
@@ -65,6 +77,258 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         assertEquals(epic.getId(), subTasks.getFirst().getEpicId(), "ID эпика у подзадачи должен совпадать");
     }
 
+    @Test
+    void testJournalReplay() { // Проверяет, что изменения в режиме журнала восстанавливаются при загрузке
+        StorageConfig config = StorageConfig.journal(100);
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file, config);
+
+        Task task1 = new Task("Задача № 1", "Описание № 1", Status.NEW);
+        manager.addTask(task1);
+        Task task2 = new Task("Задача № 2", "Описание № 2", Status.NEW);
+        manager.addTask(task2);
+        Epic epic = new Epic("Эпик № 1", "Описание эпика № 1", Status.NEW);
+        manager.addEpic(epic);
+        SubTask subTask = new SubTask("Подзадача № 1", "Описание подзадачи № 1", Status.NEW, epic.getId());
+        manager.addSubTask(subTask);
+        subTask.setStatus(Status.DONE);
+        manager.updateSubTask(subTask);
+        manager.deleteTaskById(task1.getId());
+
+        File journal = new File(file.getPath() + ".journal");
+        assertTrue(journal.exists(), "Изменения должны дописываться в журнал");
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(file, config);
+        assertEquals(List.of(task2), loadedManager.getAllTasks(), "Удалённая задача не должна восстановиться");
+        assertEquals(Status.DONE, loadedManager.getSubTasksByEpicId(epic.getId()).getFirst().getStatus(),
+                "Должна восстановиться последняя версия подзадачи");
+        assertEquals(Status.DONE, loadedManager.getEpicById(epic.getId()).getStatus(),
+                "Статус эпика должен быть пересчитан по подзадачам");
+
+        Task task3 = new Task("Задача № 3", "Описание № 3", Status.NEW);
+        loadedManager.addTask(task3);
+        assertTrue(task3.getId() > subTask.getId(), "Идентификаторы не должны повторяться после загрузки");
+        journal.delete();
+    }
+
+    @Test
+    void testJournalSpecialCharacters() { /* Проверяет, что запятые, переводы строк и обратная косая черта
+        в названии и описании не ломают журнал, в том числе при двоичном основном файле */
+        StorageConfig config = StorageConfig.journal(100).withFormat(SnapshotFormat.BINARY);
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file, config);
+        Task task = new Task("Задача, № 1", "Строка 1\nСтрока 2,\r\nпуть C:\\temp\\n", Status.NEW);
+        manager.addTask(task);
+        Epic epic = new Epic("Эпик,\nс запятой", "Описание, эпика", Status.NEW);
+        manager.addEpic(epic);
+        SubTask subTask = new SubTask("Подзадача \\c", "Описание,,", Status.NEW, epic.getId());
+        manager.addSubTask(subTask);
+        SubTask updated = new SubTask("Подзадача, обновлённая", "Описание,,", Status.DONE, epic.getId());
+        updated.setId(subTask.getId());
+        manager.updateSubTask(updated);
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(file, config);
+        Task loadedTask = loadedManager.getTaskById(task.getId());
+        assertEquals(task.getName(), loadedTask.getName(), "Название с запятой должно восстановиться");
+        assertEquals(task.getDescription(), loadedTask.getDescription(), "Описание должно восстановиться целиком");
+        Epic loadedEpic = loadedManager.getEpicById(epic.getId());
+        assertEquals(epic.getName(), loadedEpic.getName(), "Название эпика должно восстановиться");
+        assertEquals(epic.getDescription(), loadedEpic.getDescription(), "Описание эпика должно восстановиться");
+        SubTask loadedSubTask = loadedManager.getSubTaskById(subTask.getId());
+        assertEquals("Подзадача, обновлённая", loadedSubTask.getName(), "Должна восстановиться последняя версия");
+        assertEquals("Описание,,", loadedSubTask.getDescription(), "Описание подзадачи должно восстановиться");
+        new File(file.getPath() + ".journal").delete();
+    }
+
+    @Test
+    void testJournalTornTail() throws IOException { /* Проверяет, что недописанная при сбое строка журнала
+        отбрасывается, а повреждённая целая строка даёт ManagerSaveException */
+        StorageConfig config = StorageConfig.journal(100);
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file, config);
+        Task task1 = new Task("Задача № 1", "Описание № 1", Status.NEW);
+        manager.addTask(task1);
+        Task task2 = new Task("Задача № 2", "Описание № 2", Status.NEW);
+        manager.addTask(task2);
+
+        File journal = new File(file.getPath() + ".journal");
+        Files.writeString(journal.toPath(), "ADD,3,TASK,Задача № 3,NEW,Опис", StandardOpenOption.APPEND);
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(file, config);
+        assertEquals(List.of(task1, task2), loadedManager.getAllTasks(), "Недописанная запись не восстанавливается");
+        Task task3 = new Task("Задача № 3", "Описание № 3", Status.NEW);
+        loadedManager.addTask(task3);
+        assertEquals(3, FileBackedTaskManager.loadFromFile(file, config).getAllTasks().size(),
+                "Запись после отрезанного хвоста начинается с новой строки");
+
+        Files.writeString(journal.toPath(), "ADD,x,TASK,Задача,NEW,Описание" + System.lineSeparator(),
+                StandardOpenOption.APPEND);
+        assertThrows(ManagerSaveException.class, () -> FileBackedTaskManager.loadFromFile(file, config),
+                "Повреждённая запись - ошибка загрузки, а не NumberFormatException");
+        journal.delete();
+    }
+
+    @Test
+    void testJournalCompaction() { // Проверяет, что журнал сворачивается в основной файл по достижении порога
+        StorageConfig config = StorageConfig.journal(3);
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file, config);
+        File journal = new File(file.getPath() + ".journal");
+
+        for (int i = 1; i <= 3; i++) {
+            manager.addTask(new Task("Задача № " + i, "Описание № " + i, Status.NEW));
+        }
+        assertFalse(journal.exists(), "После сворачивания журнал должен быть сброшен");
+
+        manager.addTask(new Task("Задача № 4", "Описание № 4", Status.NEW));
+        assertTrue(journal.exists(), "Новые изменения должны попадать в журнал");
+        assertEquals(4, FileBackedTaskManager.loadFromFile(file, config).getAllTasks().size(),
+                "Должны восстановиться задачи из файла и журнала");
+        journal.delete();
+    }
+
+    @Test
+    void testBatchJournalReplay() { // Проверяет, что пакетные изменения восстанавливаются из журнала
+        StorageConfig config = StorageConfig.journal(100);
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file, config);
+        File journal = new File(file.getPath() + ".journal");
+
+        Epic epic = new Epic("Эпик № 1", "Описание эпика № 1", Status.NEW);
+        manager.addEpic(epic);
+        manager.addTasks(List.of(new Task("Задача № 1", "Описание № 1", Status.NEW),
+                new Task("Задача № 2", "Описание № 2", Status.NEW)));
+
+        manager.addSubTasks(List.of(new SubTask("Подзадача № 1", "Описание № 1", Status.DONE, epic.getId()),
+                new SubTask("Подзадача № 2", "Описание № 2", Status.DONE, epic.getId())));
+        manager.deleteByIds(List.of(manager.getAllTasks().getFirst().getId()));
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(file, config);
+        assertEquals(1, loadedManager.getAllTasks().size(), "Удаление из пакета должно восстановиться");
+        assertEquals(2, loadedManager.getSubTasksByEpicId(epic.getId()).size(),
+                "Подзадачи пакета должны восстановиться");
+        assertEquals(Status.DONE, loadedManager.getEpicById(epic.getId()).getStatus(),
+                "Статус эпика должен быть пересчитан по подзадачам");
+        journal.delete();
+    }
+
+    @Test
+    void testManualFlush() { // Проверяет, что при ручном сохранении изменения попадают в файл только после flush()
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, StorageConfig.snapshot().withManualFlush());
+        manager.addTask(new Task("Задача № 1", "Описание № 1", Status.NEW));
+        manager.addTask(new Task("Задача № 2", "Описание № 2", Status.NEW));
+
+        assertTrue(FileBackedTaskManager.loadFromFile(file).getAllTasks().isEmpty(),
+                "До вызова flush() файл не должен меняться");
+
+        manager.flush();
+        assertEquals(2, FileBackedTaskManager.loadFromFile(file).getAllTasks().size(),
+                "После flush() в файле должны быть обе задачи");
+        manager.close();
+    }
+
+    @Test
+    void testFlushMetrics() { // Проверяет, что сохранения учитываются в реестре метрик из настроек
+        MetricsRegistry metrics = new MetricsRegistry();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file,
+                StorageConfig.snapshot().withManualFlush().withMetrics(metrics));
+        manager.addTask(new Task("Задача № 1", "Описание № 1", Status.NEW));
+        manager.addTask(new Task("Задача № 2", "Описание № 2", Status.NEW));
+        manager.flush();
+        manager.flush(); // Без изменений сохранять нечего
+
+        String label = "{file=\"" + file.getName() + "\"}";
+        String text = metrics.scrape();
+        assertTrue(text.contains("storage_flush_seconds_count" + label + " 1\n"), text);
+        assertTrue(text.contains("storage_snapshots_total" + label + " 1\n"), text);
+        assertTrue(text.contains("storage_flush_failures_total" + label + " 0\n"), text);
+    }
+
+    @Test
+    void testBatchedFlushWithFsyncAndAtomicRename() { // Проверяет фоновую запись пачками с fsync и переименованием
+        StorageConfig config = StorageConfig.journal(5)
+                .withFlushEvery(3)
+                .withFlushInterval(50)
+                .withFsync(true)
+                .withAtomicRename(true);
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, config);
+
+        for (int i = 1; i <= 10; i++) {
+            manager.addTask(new Task("Задача № " + i, "Описание № " + i, Status.NEW));
+        }
+        manager.close();
+
+        assertEquals(10, FileBackedTaskManager.loadFromFile(file, config).getAllTasks().size(),
+                "После close() все изменения должны быть сохранены");
+        assertFalse(new File(file.getPath() + ".tmp").exists(), "Временный файл не должен оставаться");
+        new File(file.getPath() + ".journal").delete();
+    }
+
+    @Test
+    void testFlushByInterval() throws InterruptedException { /* Проверяет, что таймер сохранения, запущенный
+                                                                 первым изменением, сохраняет его без close() */
+        StorageConfig config = StorageConfig.snapshot().withFlushEvery(1000).withFlushInterval(20);
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, config);
+        manager.addTask(new Task("Задача № 1", "Описание № 1", Status.NEW));
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (file.length() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, FileBackedTaskManager.loadFromFile(file).getAllTasks().size(),
+                "Изменение должно сохраниться по таймеру");
+        manager.close();
+    }
+
+    @Test
+    void testLoadLinksSubTasksAndReportsStatistics() throws IOException { /* Проверяет связывание подзадачи,
+                                                                            записанной раньше своего эпика,
+                                                                            и статистику загрузки */
+        Files.write(file.toPath(), List.of(
+                "id,type,name,description,status,startTime,duration,endTime,subTaskId",
+                "1,TASK,Задача,NEW,Описание,30,2025-05-01T10:00",
+                "3,SUBTASK,Подзадача,DONE,Описание,0,null,2",
+                "2,EPIC,Эпик,DONE,Описание,0,null,null,[3]"));
+
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file);
+
+        assertEquals(List.of(3), List.copyOf(manager.getEpicById(2).getSubTaskIds()),
+                "Подзадача должна быть связана с эпиком");
+        assertEquals(30, manager.getTaskById(1).getDuration().toMinutes(), "Продолжительность должна загрузиться");
+        assertEquals(1, manager.getPrioritizedTasks().size(), "Задача со временем должна попасть в приоритеты");
+
+        LoadReport report = manager.getLoadReport();
+        assertEquals(3, report.getRows(), "Должно быть загружено 3 строки");
+        assertEquals(Files.size(file.toPath()), report.getBytes(), "Должен учитываться размер прочитанного файла");
+    }
+
+    @Test
+    void testBinarySnapshotAndConversion() throws IOException { // Проверяет двоичный формат и конвертацию в CSV
+        StorageConfig config = StorageConfig.snapshot().withFormat(SnapshotFormat.BINARY);
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, config);
+
+        Task task = new Task("Задача, с запятой", "Описание, тоже с запятой", Status.IN_PROGRESS,
+                Duration.ofMinutes(45), LocalDateTime.of(2025, 5, 1, 10, 0));
+        manager.addTask(task);
+        Epic epic = new Epic("Эпик № 1", "Описание эпика № 1", Status.NEW);
+        manager.addEpic(epic);
+        SubTask subTask = new SubTask("Подзадача № 1", "Описание подзадачи № 1", Status.DONE, epic.getId());
+        manager.addSubTask(subTask);
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(file, config);
+        Task loadedTask = loadedManager.getTaskById(task.getId());
+        assertEquals(task.getName(), loadedTask.getName(), "Запятая в имени не должна ломать двоичный формат");
+        assertEquals(task.getDescription(), loadedTask.getDescription(), "Описание должно совпадать");
+        assertEquals(task.getStartTime(), loadedTask.getStartTime(), "Время начала должно совпадать");
+        assertEquals(task.getDuration(), loadedTask.getDuration(), "Продолжительность должна совпадать");
+        assertEquals(Status.DONE, loadedManager.getEpicById(epic.getId()).getStatus(), "Статус эпика должен совпадать");
+        assertEquals(epic.getId(), loadedManager.getSubTaskById(subTask.getId()).getEpicId(),
+                "ID эпика у подзадачи должен совпадать");
+
+        manager.deleteTaskById(task.getId()); // Запятые в имени CSV не поддерживает
+        File csv = File.createTempFile("Test_file", ".csv");
+        SnapshotConverter.binaryToCsv(file, csv);
+        FileBackedTaskManager csvManager = FileBackedTaskManager.loadFromFile(csv);
+        assertEquals(1, csvManager.getAllEpics().size(), "После конвертации должен остаться эпик");
+        assertEquals(1, csvManager.getAllSubTasks().size(), "После конвертации должна остаться подзадача");
+        csv.delete();
+    }
+
     // Проверяют правильность преобразования задач в CSV-строки, все поля и их порядок
     @Test
     void testTaskSerialization() {
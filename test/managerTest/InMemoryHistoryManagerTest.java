@@ -182,4 +182,20 @@ class InMemoryHistoryManagerTest {
         assertEquals(task1, history.get(0), "Первая задача должна остаться.");
         assertEquals(task3, history.get(1), "Третья задача должна переместиться на вторую позицию.");
     }
-}
\ No newline at end of file
+
+    @Test // Проверка вытеснения давно не просмотренной задачи при ограниченном размере истории
+    void testBoundedHistoryEvictsLeastRecentlyViewed() {
+        InMemoryHistoryManager historyManager = new InMemoryHistoryManager(2);
+        Task task1 = new Task(1, "Тестовая задача № 1", "Описание тестовой задачи № 1", Status.NEW);
+        Task task2 = new Task(2, "Тестовая задача № 2", "Описание тестовой задачи № 2", Status.NEW);
+        Task task3 = new Task(3, "Тестовая задача № 3", "Описание тестовой задачи № 3", Status.NEW);
+
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task1); // Повторный просмотр делает задачу 1 самой свежей
+        historyManager.add(task3);
+
+        assertEquals(List.of(task1, task3), historyManager.getHistory(),
+                "Из истории должна быть вытеснена задача 2");
+    }
+}
@@ -20,4 +20,10 @@ class ManagersTest {
         HistoryManager historyManager = Managers.getDefaultHistory();
         assertNotNull(historyManager, "Менеджер истории должен быть проинициализирован.");
     }
+
+    @Test
+    void testGetConcurrentReturnsInitializedTaskManager() {
+        TaskManager taskManager = Managers.getConcurrent();
+        assertNotNull(taskManager, "Потокобезопасный менеджер задач должен быть проинициализирован.");
+    }
 }
\ No newline at end of file
@@ -1,17 +1,27 @@
 package managerTest;
 
+import manager.BatchResult;
+import manager.FreeSlot;
+import manager.ScheduleResult;
 import manager.ManagerSaveException;
+import manager.TaskOverlapException;
 import manager.TaskManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import task.Epic;
 import task.SubTask;
 import task.Task;
+import tools.BatchError;
+import tools.CollectionType;
 import tools.Status;
+import tools.TaskType;
 
 import java.io.IOException;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -95,6 +105,66 @@ public abstract class TaskManagerTest<T extends TaskManager> {
                 "Не следует создавать исключение для непересекающихся задач.");
     }
 
+    @Test // Проверяем, что задача нулевой длительности в начале другой не скрывает пересечение с ней
+    void testZeroDurationTaskDoesNotHideOverlap() {
+        Task task = new Task("Задача № 1", "Описание задачи № 1", Status.NEW,
+                Duration.ofHours(1), LocalDateTime.of(2025, 5, 1, 10, 0));
+        Task milestone = new Task("Веха", "Описание вехи", Status.NEW,
+                Duration.ZERO, LocalDateTime.of(2025, 5, 1, 10, 0));
+        taskManager.addTask(task);
+        taskManager.addTask(milestone);
+
+        Task overlappingTask = new Task("Пересекающаяся задача", "Описание пересекающейся задачи", Status.NEW,
+                Duration.ofMinutes(30), LocalDateTime.of(2025, 5, 1, 10, 15));
+        assertTrue(taskManager.isTaskOverlapping(overlappingTask), "Задача пересекается с первой");
+        assertEquals(List.of(task), taskManager.getOverlappingTasks(overlappingTask));
+        assertThrows(TaskOverlapException.class, () -> taskManager.addTask(overlappingTask));
+    }
+
+    @Test // Проверяем, что менеджер возвращает задачи, с которыми пересекается новая
+    void testGetOverlappingTasks() {
+        Task task1 = new Task("Задача № 1", "Описание задачи № 1", Status.NEW,
+                Duration.ofHours(1), LocalDateTime.of(2025, 5, 1, 10, 0));
+        Task task2 = new Task("Задача № 2", "Описание задачи № 2", Status.NEW,
+                Duration.ofHours(1), LocalDateTime.of(2025, 5, 1, 11, 0));
+        Task task3 = new Task("Задача № 3", "Описание задачи № 3", Status.NEW,
+                Duration.ofHours(1), LocalDateTime.of(2025, 5, 1, 13, 0));
+        taskManager.addTask(task1);
+        taskManager.addTask(task2);
+        taskManager.addTask(task3);
+
+        Task newTask = new Task("Новая задача", "Описание новой задачи", Status.NEW,
+                Duration.ofMinutes(90), LocalDateTime.of(2025, 5, 1, 10, 30));
+
+        List<Task> conflicts = taskManager.getOverlappingTasks(newTask);
+        assertEquals(2, conflicts.size(), "Новая задача пересекается с двумя задачами");
+        assertTrue(conflicts.containsAll(List.of(task1, task2)), "Должны вернуться пересекающиеся задачи");
+
+        TaskOverlapException exception = assertThrows(TaskOverlapException.class,
+                () -> taskManager.addTask(newTask));
+        assertEquals(2, exception.getConflicts().size(), "Исключение должно содержать пересекающиеся задачи");
+    }
+
+    @Test // Проверяем, что задача не пересекается сама с собой при обновлении, а удалённая задача освобождает время
+    void testUpdateAndDeleteFreeTimeSlot() {
+        Task task = new Task("Задача № 1", "Описание задачи № 1", Status.NEW,
+                Duration.ofHours(1), LocalDateTime.of(2025, 5, 1, 10, 0));
+        taskManager.addTask(task);
+
+        Task updatedTask = new Task("Задача № 1", "Новое описание", Status.IN_PROGRESS,
+                Duration.ofHours(2), LocalDateTime.of(2025, 5, 1, 10, 0));
+        updatedTask.setId(task.getId());
+        assertDoesNotThrow(() -> taskManager.updateTask(updatedTask),
+                "Обновление задачи не должно конфликтовать с её прежней версией");
+        assertEquals(1, taskManager.getPrioritizedTasks().size(), "В списке приоритетов должна остаться одна задача");
+
+        taskManager.deleteTaskById(task.getId());
+        Task newTask = new Task("Задача № 2", "Описание задачи № 2", Status.NEW,
+                Duration.ofHours(1), LocalDateTime.of(2025, 5, 1, 11, 0));
+        assertFalse(taskManager.isTaskOverlapping(newTask), "Удалённая задача не должна занимать время");
+        assertTrue(taskManager.getPrioritizedTasks().isEmpty(), "Удалённая задача не должна оставаться в приоритетах");
+    }
+
     @Test // Проверяем корректность расчёта статуса эпика, когда все подзадачи имеют статус NEW
     void testEpicStatusWithSubtasks() {
         Epic epic = new Epic("Эпик № 1", "Описание эпика № 1", Status.NEW);
@@ -128,4 +198,459 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals(Status.IN_PROGRESS, epic.getStatus(),
                 "Если все подзадачи Epic имеют статус IN_PROGRESS, то и Epic должен иметь статус IN_PROGRESS.");
     }
-}
\ No newline at end of file
+
+    @Test // Проверяем, что время эпика пересчитывается при добавлении, изменении и удалении подзадач
+    void testEpicTimeWindow() {
+        Epic epic = new Epic("Эпик № 1", "Описание эпика № 1", Status.NEW);
+        taskManager.addEpic(epic);
+        SubTask subTask1 = new SubTask("Подзадача № 1", "Описание подзадачи № 1", Status.NEW, epic.getId(),
+                Duration.ofMinutes(30), LocalDateTime.of(2025, 5, 1, 10, 0));
+        SubTask subTask2 = new SubTask("Подзадача № 2", "Описание подзадачи № 2", Status.DONE, epic.getId(),
+                Duration.ofMinutes(60), LocalDateTime.of(2025, 5, 1, 12, 0));
+        taskManager.addSubTask(subTask1);
+        taskManager.addSubTask(subTask2);
+
+        assertEquals(Duration.ofMinutes(90), epic.getDuration(), "Длительность эпика - сумма длительностей подзадач");
+        assertEquals(LocalDateTime.of(2025, 5, 1, 10, 0), epic.getStartTime(), "Начало эпика - самое раннее");
+        assertEquals(LocalDateTime.of(2025, 5, 1, 13, 0), epic.getEndTime(), "Окончание эпика - самое позднее");
+        assertEquals(Status.IN_PROGRESS, epic.getStatus(), "Статус эпика должен учитывать обе подзадачи");
+
+        subTask2.setStartTime(LocalDateTime.of(2025, 5, 1, 8, 0));
+        taskManager.updateSubTask(subTask2);
+        assertEquals(LocalDateTime.of(2025, 5, 1, 8, 0), epic.getStartTime(), "Начало эпика должно обновиться");
+        assertEquals(LocalDateTime.of(2025, 5, 1, 10, 30), epic.getEndTime(), "Окончание эпика должно обновиться");
+
+        taskManager.deleteSubTaskById(subTask1.getId());
+        assertEquals(Duration.ofMinutes(60), epic.getDuration(), "Удалённая подзадача не должна учитываться");
+        assertEquals(LocalDateTime.of(2025, 5, 1, 9, 0), epic.getEndTime(), "Окончание эпика должно обновиться");
+        assertEquals(Status.DONE, epic.getStatus(), "Оставшаяся подзадача выполнена");
+
+        Epic renamed = new Epic("Эпик № 1 (новый)", "Описание эпика № 1", Status.NEW);
+        renamed.setId(epic.getId());
+        taskManager.updateEpic(renamed);
+        assertEquals(Status.DONE, taskManager.getEpicById(epic.getId()).getStatus(),
+                "Обновление эпика не должно сбрасывать его подзадачи");
+        assertEquals(List.of(subTask2.getId()), List.copyOf(taskManager.getEpicById(epic.getId()).getSubTaskIds()),
+                "Подзадачи должны перейти к обновлённому эпику");
+    }
+
+    @Test // Проверяем постраничное чтение задач по id и по приоритету
+    void testPagedReads() {
+        for (int i = 0; i < 10; i++) {
+            taskManager.addTask(new Task("Задача № " + i, "Описание задачи № " + i, Status.NEW,
+                    Duration.ofMinutes(30), LocalDateTime.of(2025, 5, 1, 10, 0).minusHours(i)));
+        }
+        taskManager.deleteTaskById(taskManager.getAllTasks().get(4).getId());
+
+        List<Task> firstPage = taskManager.getTasks(0, 4);
+        List<Task> secondPage = taskManager.getTasks(firstPage.getLast().getId(), 4);
+        List<Task> lastPage = taskManager.getTasks(secondPage.getLast().getId(), 4);
+        assertEquals(4, firstPage.size(), "Первая страница должна быть полной");
+        assertEquals(4, secondPage.size(), "Вторая страница должна быть полной");
+        assertEquals(1, lastPage.size(), "На последней странице должна остаться одна задача");
+        assertTrue(firstPage.getLast().getId() < secondPage.getFirst().getId(), "Страницы должны идти по id");
+
+        List<Task> prioritized = taskManager.getPrioritizedTasks();
+        List<Task> prioritizedPage = taskManager.getPrioritizedTasks(prioritized.get(2).getStartTime(),
+                prioritized.get(2).getId(), 3);
+        assertEquals(prioritized.subList(3, 6), prioritizedPage, "Страница должна начинаться после курсора");
+        assertEquals(prioritized.subList(0, 2), taskManager.getPrioritizedTasks(null, 0, 2),
+                "Без курсора страница начинается с первой задачи");
+    }
+
+    @Test // Проверяем, что изменения увеличивают версии только затронутых коллекций
+    void testCollectionVersions() {
+        long tasksVersion = taskManager.getVersion(CollectionType.TASKS);
+        long epicsVersion = taskManager.getVersion(CollectionType.EPICS);
+        long historyVersion = taskManager.getVersion(CollectionType.HISTORY);
+
+        Task task = new Task("Задача № 1", "Описание задачи № 1", Status.NEW);
+        taskManager.addTask(task);
+        assertTrue(taskManager.getVersion(CollectionType.TASKS) > tasksVersion, "Добавление меняет версию задач");
+        assertEquals(epicsVersion, taskManager.getVersion(CollectionType.EPICS), "Эпики не изменились");
+
+        taskManager.getTaskById(task.getId());
+        assertTrue(taskManager.getVersion(CollectionType.HISTORY) > historyVersion, "Просмотр меняет историю");
+
+        Epic epic = new Epic("Эпик № 1", "Описание эпика № 1", Status.NEW);
+        taskManager.addEpic(epic);
+        long afterEpic = taskManager.getVersion(CollectionType.EPICS);
+        taskManager.addSubTask(new SubTask("Подзадача № 1", "Описание подзадачи № 1", Status.DONE, epic.getId()));
+        assertTrue(taskManager.getVersion(CollectionType.EPICS) > afterEpic,
+                "Подзадача меняет статус эпика, поэтому и версию эпиков");
+    }
+
+    @Test // Проверяем пакетное добавление: пересечения внутри пакета и с задачами менеджера отклоняются
+    void testAddTasksBatch() {
+        LocalDateTime start = LocalDateTime.of(2025, 6, 1, 10, 0);
+        taskManager.addTask(new Task("Задача № 1", "Описание задачи № 1", Status.NEW, Duration.ofMinutes(60), start));
+
+        Task late = new Task("Задача № 2", "Описание задачи № 2", Status.NEW, Duration.ofMinutes(30),
+                start.plusHours(3));
+        Task overlapsExisting = new Task("Задача № 3", "Описание задачи № 3", Status.NEW, Duration.ofMinutes(30),
+                start.plusMinutes(30));
+        Task early = new Task("Задача № 4", "Описание задачи № 4", Status.NEW, Duration.ofMinutes(60),
+                start.minusHours(2));
+        Task overlapsEarly = new Task("Задача № 5", "Описание задачи № 5", Status.NEW, Duration.ofMinutes(30),
+                start.minusMinutes(90));
+        Task untimed = new Task("Задача № 6", "Описание задачи № 6", Status.NEW);
+
+        BatchResult result = taskManager.addTasks(List.of(late, overlapsExisting, early, overlapsEarly, untimed));
+
+        assertEquals(2, result.getErrorCount(), "Две задачи пересекаются по времени");
+        assertFalse(result.isApplied(1), "Задача пересекается с задачей менеджера");
+        assertFalse(result.isApplied(3), "Задача пересекается с более ранней задачей пакета");
+        assertNotNull(result.getError(3), "У отклонённой задачи должна быть причина");
+        assertEquals(List.of(late, early, untimed), result.getApplied(), "Принятые задачи - в порядке пакета");
+        assertTrue(late.getId() < early.getId() && early.getId() < untimed.getId(), "id выдаются в порядке пакета");
+        assertEquals(4, taskManager.getAllTasks().size(), "Добавлены только принятые задачи");
+        assertEquals(early, taskManager.getPrioritizedTasks().get(0), "Принятые задачи попадают в приоритет");
+    }
+
+    @Test // Нулевая задача в начале длинной принимается в пакете так же, как при одиночном добавлении
+    void testAddTasksBatchZeroDurationLast() {
+        LocalDateTime start = LocalDateTime.of(2025, 6, 1, 10, 0);
+        Task longTask = new Task("Задача № 1", "Описание задачи № 1", Status.NEW, Duration.ofHours(1), start);
+        Task milestone = new Task("Задача № 2", "Описание задачи № 2", Status.NEW, Duration.ZERO, start);
+
+        BatchResult result = taskManager.addTasks(List.of(longTask, milestone));
+
+        assertEquals(0, result.getErrorCount(), "Нулевая задача в начале другой с ней не пересекается");
+        assertEquals(List.of(longTask, milestone), result.getApplied(), "Обе задачи должны быть приняты");
+        assertEquals(2, taskManager.getAllTasks().size(), "Обе задачи должны быть добавлены");
+    }
+
+    @Test // Проверяем пакетные добавление, изменение и удаление подзадач
+    void testSubTaskBatches() {
+        Epic epic1 = new Epic("Эпик № 1", "Описание эпика № 1", Status.NEW);
+        Epic epic2 = new Epic("Эпик № 2", "Описание эпика № 2", Status.NEW);
+        taskManager.addEpic(epic1);
+        taskManager.addEpic(epic2);
+        LocalDateTime start = LocalDateTime.of(2025, 6, 1, 10, 0);
+        SubTask subTask1 = new SubTask("Подзадача № 1", "Описание подзадачи № 1", Status.DONE, epic1.getId(),
+                Duration.ofMinutes(60), start);
+        SubTask subTask2 = new SubTask("Подзадача № 2", "Описание подзадачи № 2", Status.DONE, epic1.getId(),
+                Duration.ofMinutes(60), start.plusHours(1));
+        SubTask orphan = new SubTask("Подзадача № 3", "Описание подзадачи № 3", Status.NEW, 999);
+
+        BatchResult added = taskManager.addSubTasks(List.of(subTask1, subTask2, orphan));
+        assertFalse(added.isApplied(2), "Подзадача без эпика отклоняется");
+        assertEquals(Status.DONE, epic1.getStatus(), "Статус эпика пересчитан по всем подзадачам пакета");
+        assertEquals(Duration.ofMinutes(120), epic1.getDuration(), "Время эпика учитывает весь пакет");
+
+        // Подзадачи меняются местами: по отдельности каждое изменение пересекалось бы со второй подзадачей
+        SubTask moved1 = new SubTask("Подзадача № 1", "Описание подзадачи № 1", Status.NEW, epic2.getId(),
+                Duration.ofMinutes(60), start.plusHours(1));
+        moved1.setId(subTask1.getId());
+        SubTask moved2 = new SubTask("Подзадача № 2", "Описание подзадачи № 2", Status.DONE, epic1.getId(),
+                Duration.ofMinutes(60), start);
+        moved2.setId(subTask2.getId());
+        BatchResult updated = taskManager.updateSubTasks(List.of(moved1, moved2));
+        assertTrue(updated.isSuccessful(), "Обмен временем внутри пакета не является пересечением");
+        assertEquals(List.of(subTask2.getId()), List.copyOf(epic1.getSubTaskIds()), "Подзадача ушла из эпика");
+        assertEquals(Status.NEW, epic2.getStatus(), "Эпик, получивший подзадачу, пересчитан");
+        assertEquals(moved2, taskManager.getPrioritizedTasks().get(0), "Приоритет учитывает новое время");
+
+        SubTask clash = new SubTask("Подзадача № 2", "Описание подзадачи № 2", Status.NEW, epic1.getId(),
+                Duration.ofMinutes(30), start.plusMinutes(90));
+        clash.setId(subTask2.getId());
+        assertFalse(taskManager.updateSubTasks(List.of(clash)).isApplied(0), "Пересечение отклоняет изменение");
+        assertTrue(taskManager.getOverlappingTasks(new Task("Проверка", "Проверка", Status.NEW,
+                Duration.ofMinutes(10), start)).contains(moved2), "Отклонённая подзадача сохраняет прежнее время");
+
+        BatchResult deleted = taskManager.deleteByIds(List.of(epic2.getId(), subTask2.getId(), 12345));
+        assertEquals(2, deleted.getApplied().size(), "Удалены эпик и подзадача");
+        assertFalse(deleted.isApplied(2), "Несуществующий id отклоняется");
+        assertTrue(taskManager.getAllSubTasks().isEmpty(), "Подзадачи удалённого эпика удаляются вместе с ним");
+        assertEquals(Status.NEW, taskManager.getEpicById(epic1.getId()).getStatus(), "Пустой эпик - новый");
+        assertTrue(taskManager.getPrioritizedTasks().isEmpty(), "Удалённые задачи уходят из приоритета");
+    }
+
+    @Test // Проверяем, что списки отдаются общими снимками, которые пересобираются только после изменения
+    void testSnapshotReads() {
+        Task task1 = new Task("Задача № 1", "Описание задачи № 1", Status.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 8, 1, 10, 0));
+        taskManager.addTask(task1);
+
+        List<Task> tasks = taskManager.getAllTasks();
+        List<Task> prioritized = taskManager.getPrioritizedTasks();
+        assertSame(tasks, taskManager.getAllTasks(), "Без изменений должен отдаваться тот же снимок");
+        assertSame(prioritized, taskManager.getPrioritizedTasks(), "Без изменений должен отдаваться тот же снимок");
+        assertThrows(UnsupportedOperationException.class, () -> tasks.add(task1), "Снимок неизменяемый");
+
+        Task task2 = new Task("Задача № 2", "Описание задачи № 2", Status.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 8, 1, 9, 0));
+        taskManager.addTask(task2);
+        assertEquals(1, tasks.size(), "Старый снимок не меняется после изменения менеджера");
+        assertEquals(List.of(task1, task2), taskManager.getAllTasks(), "Новый снимок содержит новую задачу");
+        assertEquals(List.of(task2, task1), taskManager.getPrioritizedTasks(), "Приоритет пересобран");
+
+        taskManager.getTaskById(task1.getId());
+        assertSame(taskManager.getAllTasks(), taskManager.getAllTasks(), "Просмотр не меняет список задач");
+    }
+
+    @Test // Проверяем выборку задач по окну времени
+    void testTasksInRange() {
+        LocalDateTime day = LocalDateTime.of(2025, 9, 1, 0, 0);
+        Task spanning = new Task("Задача № 1", "Описание задачи № 1", Status.NEW, Duration.ofHours(2),
+                day.minusHours(1));
+        Task inside = new Task("Задача № 2", "Описание задачи № 2", Status.NEW, Duration.ofHours(1), day.plusHours(5));
+        Task atEnd = new Task("Задача № 3", "Описание задачи № 3", Status.NEW, Duration.ofHours(1), day.plusDays(1));
+        Task untimed = new Task("Задача № 4", "Описание задачи № 4", Status.NEW);
+        taskManager.addTask(spanning);
+        taskManager.addTask(inside);
+        taskManager.addTask(atEnd);
+        taskManager.addTask(untimed);
+
+        assertEquals(List.of(spanning, inside), taskManager.getTasksInRange(day, day.plusDays(1)),
+                "Окно включает задачу, идущую через его начало, и не включает задачу, начинающуюся в его конце");
+        assertEquals(List.of(inside), taskManager.getTasksInRange(day.plusHours(1), day.plusHours(6)),
+                "Закончившаяся задача в окно не входит");
+        assertEquals(List.of(spanning, inside, atEnd), taskManager.getTasksInRange(null, null),
+                "Без границ - все задачи со временем");
+        assertTrue(taskManager.getTasksInRange(day.plusHours(2), day.plusHours(3)).isEmpty(), "Пустое окно");
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getTasksInRange(day, day.minusDays(1)),
+                "Конец окна раньше начала");
+    }
+
+    @Test // Задача, изменённая на месте и переданная в update, не оставляет прежний узел в списке приоритетов
+    void testPrioritizedAfterInPlaceUpdate() {
+        LocalDateTime day = LocalDateTime.of(2025, 6, 1, 9, 0);
+        Task task = new Task("Задача № 1", "Описание задачи № 1", Status.NEW, Duration.ofHours(1), day);
+        taskManager.addTask(task);
+        List<Task> others = new ArrayList<>();
+        for (int i = 0; i < 10; i++) { // Дерево из нескольких уровней: поиск по новому времени уходит от узла задачи
+            Task other = new Task("Задача № " + (i + 2), "Описание задачи", Status.NEW, Duration.ofHours(1),
+                    day.plusHours(2 + i));
+            taskManager.addTask(other);
+            others.add(other);
+        }
+
+        task.setStartTime(day.plusHours(20));
+        taskManager.updateTask(task);
+        List<Task> expected = new ArrayList<>(others);
+        expected.add(task);
+        assertEquals(expected, taskManager.getPrioritizedTasks(), "Задача должна встать по новому времени");
+        assertEquals(others.subList(0, 2), taskManager.getTasksInRange(day, day.plusHours(4)),
+                "Прежнее время задачи не должно попадать в окно");
+
+        taskManager.deleteTaskById(task.getId());
+        assertEquals(others, taskManager.getPrioritizedTasks(), "Удалённая задача не должна остаться");
+        assertEquals(others, taskManager.getPrioritizedTasks(null, 0, 20),
+                "Удалённая задача не должна попадать на страницы");
+        assertEquals(others, taskManager.getTasksInRange(null, null), "Удалённая задача не должна попадать в окно");
+    }
+
+    @Test // Окно нулевой длины пусто, даже если через него идёт задача
+    void testTasksInRangeEmptyWindow() {
+        LocalDateTime day = LocalDateTime.of(2025, 9, 1, 0, 0);
+        Task spanning = new Task("Задача № 1", "Описание задачи № 1", Status.NEW, Duration.ofHours(2),
+                day.minusHours(1));
+        Task milestone = new Task("Задача № 2", "Описание задачи № 2", Status.NEW, Duration.ZERO, day.plusHours(5));
+        Task inside = new Task("Задача № 3", "Описание задачи № 3", Status.NEW, Duration.ofHours(1), day.plusHours(5));
+        taskManager.addTask(spanning);
+        taskManager.addTask(milestone);
+        taskManager.addTask(inside);
+
+        assertTrue(taskManager.getTasksInRange(day, day).isEmpty(), "Окно нулевой длины внутри задачи пусто");
+        assertTrue(taskManager.getTasksInRange(day.plusHours(5), day.plusHours(5)).isEmpty(),
+                "Окно нулевой длины в начале задач пусто");
+        assertEquals(List.of(inside), taskManager.getTasksInRange(day.plusMinutes(330), day.plusHours(6)),
+                "Нулевая задача в начале идущей не должна скрывать её");
+        assertEquals(List.of(milestone, inside), taskManager.getTasksInRange(day.plusHours(5), day.plusHours(6)),
+                "Нулевая задача в начале окна входит в окно");
+    }
+
+    @Test // Проверяем поиск свободных промежутков между задачами
+    void testFindFreeSlots() {
+        LocalDateTime day = LocalDateTime.of(2025, 10, 1, 9, 0);
+        taskManager.addTask(new Task("Задача № 1", "Описание задачи № 1", Status.NEW, Duration.ofHours(1), day));
+        taskManager.addTask(new Task("Задача № 2", "Описание задачи № 2", Status.NEW, Duration.ofMinutes(30),
+                day.plusMinutes(90)));
+        taskManager.addTask(new Task("Задача № 3", "Описание задачи № 3", Status.NEW, Duration.ofHours(1),
+                day.plusHours(4)));
+
+        List<FreeSlot> slots = taskManager.findFreeSlots(Duration.ofHours(1), day.plusMinutes(30), 3);
+        assertEquals(2, slots.size(), "Короткий промежуток 10:00-10:30 не подходит");
+        assertEquals(day.plusHours(2), slots.get(0).getStart(), "Первый подходящий промежуток - после задачи № 2");
+        assertEquals(day.plusHours(4), slots.get(0).getEnd());
+        assertEquals(day.plusHours(5), slots.get(1).getStart(), "Последний промежуток - после всех задач");
+        assertNull(slots.get(1).getEnd(), "Промежуток после всех задач не ограничен");
+
+        assertEquals(List.of(day.minusHours(1)), taskManager.findFreeSlots(Duration.ofMinutes(60),
+                        day.minusHours(1), 1).stream().map(FreeSlot::getStart).toList(),
+                "Промежуток может начинаться с момента поиска");
+        Task conflict = new Task("Задача № 4", "Описание задачи № 4", Status.NEW, Duration.ofMinutes(30),
+                day.plusMinutes(15));
+        TaskOverlapException exception = assertThrows(TaskOverlapException.class, () -> taskManager.addTask(conflict));
+        assertEquals(conflict, exception.getTask(), "Исключение должно содержать отклонённую задачу");
+    }
+
+    @Test // Проверяем автоматическое планирование задач без времени по свободным промежуткам
+    void testScheduleTasks() {
+        LocalDateTime day = LocalDateTime.of(2025, 11, 3, 9, 0);
+        taskManager.addTask(new Task("Встреча", "Описание", Status.NEW, Duration.ofMinutes(30), day.plusMinutes(30)));
+        Epic epic = new Epic("Эпик № 1", "Описание эпика № 1", Status.NEW);
+        taskManager.addEpic(epic);
+
+        Task large = new Task("Задача № 1", "Не помещается до встречи", Status.NEW, Duration.ofMinutes(60), null);
+        Task small = new Task("Задача № 2", "Помещается до встречи", Status.NEW, Duration.ofMinutes(30), null);
+        SubTask subTask = new SubTask("Подзадача № 1", "Описание подзадачи № 1", Status.NEW, epic.getId(),
+                Duration.ofMinutes(60), null);
+        Task noDuration = new Task("Задача № 3", "Без длительности", Status.NEW);
+        taskManager.addTask(large);
+        taskManager.addTask(small);
+        taskManager.addSubTask(subTask);
+        taskManager.addTask(noDuration);
+
+        ScheduleResult dryRun = taskManager.scheduleTasks(null, day, day.plusHours(3), true);
+        assertEquals(3, dryRun.size(), "Без ids планируются все задачи без времени с длительностью");
+        assertEquals(day.plusHours(1), dryRun.getStartTime(0), "Большая задача встаёт после встречи");
+        assertEquals(day, dryRun.getStartTime(1), "Маленькая задача занимает промежуток до встречи");
+        assertEquals(day.plusHours(2), dryRun.getStartTime(2), "Подзадача встаёт за большой задачей");
+        assertNull(large.getStartTime(), "Пробный запуск не меняет задачи");
+
+        List<Integer> ids = List.of(subTask.getId(), noDuration.getId(), 9999, large.getId());
+        ScheduleResult result = taskManager.scheduleTasks(ids, day, day.plusHours(2), false);
+        assertEquals(day.plusHours(1), subTask.getStartTime(), "Порядок ids задаёт приоритет");
+        assertEquals(day.plusHours(1), epic.getStartTime(), "Время эпика учитывает запланированную подзадачу");
+        assertFalse(result.isApplied(1), "Задачу без длительности запланировать нельзя");
+        assertFalse(result.isApplied(2), "Несуществующая задача отклоняется");
+        assertFalse(result.isApplied(3), "В горизонте не осталось часа для задачи № 1");
+        assertNull(large.getStartTime(), "Отклонённая задача остаётся без времени");
+        assertTrue(taskManager.getPrioritizedTasks().contains(subTask), "Запланированная подзадача в приоритете");
+        assertFalse(taskManager.isTaskOverlapping(subTask), "Планирование не создаёт пересечений");
+    }
+
+    @Test // Проверяем, что повтор id отклоняется одинаково в пробном и настоящем запуске, а эпик узнаёт о подзадаче
+    void testScheduleTasksRepeatedIdsAndEpic() {
+        LocalDateTime day = LocalDateTime.of(2025, 11, 3, 9, 0);
+        Epic epic = new Epic("Эпик № 1", "Описание эпика № 1", Status.NEW);
+        taskManager.addEpic(epic);
+        SubTask subTask = new SubTask("Подзадача № 1", "Описание подзадачи № 1", Status.NEW, epic.getId(),
+                Duration.ofMinutes(30), null);
+        taskManager.addSubTask(subTask);
+        List<Integer> ids = List.of(subTask.getId(), subTask.getId());
+
+        ScheduleResult dryRun = taskManager.scheduleTasks(ids, day, null, true);
+        assertTrue(dryRun.isApplied(0));
+        assertEquals(BatchError.INVALID, dryRun.getErrorType(1), "Повтор не раскладывается второй раз");
+
+        List<Integer> changed = new ArrayList<>();
+        taskManager.addChangeListener(changed::add);
+        long epicsVersion = taskManager.getVersion(CollectionType.EPICS);
+        ScheduleResult result = taskManager.scheduleTasks(ids, day, null, false);
+        assertEquals(dryRun.getStartTime(0), result.getStartTime(0), "Пробный запуск совпадает с настоящим");
+        assertEquals(BatchError.INVALID, result.getErrorType(1));
+        assertTrue(changed.containsAll(List.of(subTask.getId(), epic.getId())),
+                "Слушатель узнаёт о подзадаче и её эпике");
+        assertTrue(taskManager.getVersion(CollectionType.EPICS) > epicsVersion, "Версия эпиков растёт");
+    }
+
+    @Test // Проверяем, что индекс статусов следует за всеми изменениями задач, подзадач и эпиков
+    void testStatusIndex() {
+        Task task = new Task("Задача № 1", "Описание задачи № 1", Status.NEW);
+        taskManager.addTask(task);
+        Epic epic = new Epic("Эпик № 1", "Описание эпика № 1", Status.NEW);
+        taskManager.addEpic(epic);
+        SubTask subTask1 = new SubTask("Подзадача № 1", "Описание подзадачи № 1", Status.IN_PROGRESS, epic.getId());
+        SubTask subTask2 = new SubTask("Подзадача № 2", "Описание подзадачи № 2", Status.NEW, epic.getId());
+        taskManager.addSubTask(subTask1);
+        taskManager.addSubTask(subTask2);
+
+        assertEquals(List.of(task), taskManager.getByStatus(TaskType.TASK, Status.NEW));
+        assertEquals(List.of(subTask1), taskManager.getByStatus(TaskType.SUBTASK, Status.IN_PROGRESS));
+        assertEquals(List.of(epic), taskManager.getByStatus(TaskType.EPIC, Status.IN_PROGRESS),
+                "Эпик попадает в колонку по пересчитанному статусу");
+
+        task.setStatus(Status.DONE); // Задача меняется на месте, как это делают клиенты менеджера
+        taskManager.updateTask(task);
+        assertEquals(0, taskManager.countByStatus(TaskType.TASK, Status.NEW), "Задача ушла из прежней колонки");
+        assertEquals(1, taskManager.countByStatus(TaskType.TASK, Status.DONE), "Задача перешла в новую колонку");
+
+        subTask1.setStatus(Status.DONE);
+        subTask2.setStatus(Status.DONE);
+        taskManager.updateSubTasks(List.of(subTask1, subTask2));
+        assertEquals(List.of(subTask1, subTask2), taskManager.getByStatus(TaskType.SUBTASK, Status.DONE));
+        assertEquals(List.of(epic), taskManager.getByStatus(TaskType.EPIC, Status.DONE), "Эпик выполнен");
+
+        taskManager.deleteSubTaskById(subTask1.getId());
+        assertEquals(1, taskManager.countByStatus(TaskType.SUBTASK, Status.DONE), "Удалённая подзадача не учитывается");
+        assertEquals(1, taskManager.countByType(TaskType.TASK), "Размер коллекции задач");
+        assertEquals(1, taskManager.countByType(TaskType.EPIC), "Размер коллекции эпиков");
+        assertEquals(1, taskManager.countByType(TaskType.SUBTASK), "Удалённая подзадача не входит в размер");
+        taskManager.deleteAllEpics();
+        taskManager.deleteTaskById(task.getId());
+        for (TaskType type : TaskType.values()) {
+            for (Status status : Status.values()) {
+                assertEquals(0, taskManager.countByStatus(type, status), "После удаления всех задач индекс пуст");
+            }
+            assertEquals(0, taskManager.countByType(type), "После удаления всех задач коллекции пусты");
+        }
+    }
+
+    @Test // Проверяем полнотекстовый поиск: префиксы, семантику И, обновление и удаление задач
+    void testSearch() {
+        Task task = new Task("Купить ёлку", "Выбрать пушистую ель на рынке", Status.NEW);
+        taskManager.addTask(task);
+        Epic epic = new Epic("Новогодний праздник", "Подготовка к празднику", Status.NEW);
+        taskManager.addEpic(epic);
+        SubTask subTask = new SubTask("Украсить елку", "Игрушки и гирлянда", Status.NEW, epic.getId());
+        taskManager.addSubTask(subTask);
+
+        assertEquals(List.of(task, subTask), taskManager.search("ЕЛК", Set.of(), 10),
+                "Поиск без учёта регистра, ё равна е, слово запроса - префикс");
+        assertEquals(List.of(task), taskManager.search("елк рын", Set.of(), 10),
+                "Все слова запроса должны встретиться в задаче");
+        assertEquals(List.of(subTask), taskManager.search("елк", Set.of(TaskType.SUBTASK), 10),
+                "Поиск только в подзадачах");
+        assertEquals(1, taskManager.search("елк", Set.of(), 1).size(), "Не больше limit задач");
+        assertTrue(taskManager.search("подарки", Set.of(), 10).isEmpty(), "Нет совпадений");
+
+        Epic renamed = new Epic("Корпоратив", "Подготовка к празднику", Status.NEW);
+        renamed.setId(epic.getId());
+        taskManager.updateEpic(renamed);
+        assertEquals(List.of(renamed), taskManager.search("корпоратив", Set.of(), 10), "Новое название ищется");
+        assertTrue(taskManager.search("новогодний", Set.of(), 10).isEmpty(), "Старое название не ищется");
+
+        Task replaced = new Task("Купить подарки", "Список подарков", Status.NEW);
+        replaced.setId(task.getId());
+        taskManager.updateTask(replaced);
+        assertEquals(List.of(replaced), taskManager.search("подарки", Set.of(), 10), "Новое описание ищется");
+        taskManager.deleteEpicById(epic.getId());
+        assertTrue(taskManager.search("елк", Set.of(), 10).isEmpty(),
+                "Ни старый текст задачи, ни удалённая подзадача не ищутся");
+    }
+
+    @Test // Проверяем, что слушатель узнаёт id задач при добавлении, изменении и удалении, а эпика - при смене подзадач
+    void testChangeListener() {
+        List<Integer> changed = new ArrayList<>();
+        taskManager.addChangeListener(changed::add);
+
+        Task task = new Task("Задача № 1", "Описание задачи № 1", Status.NEW);
+        taskManager.addTask(task);
+        assertTrue(changed.contains(task.getId()), "Добавление задачи");
+        Epic epic = new Epic("Эпик № 1", "Описание эпика № 1", Status.NEW);
+        taskManager.addEpic(epic);
+
+        changed.clear();
+        SubTask subTask = new SubTask("Подзадача № 1", "Описание подзадачи № 1", Status.DONE, epic.getId());
+        taskManager.addSubTask(subTask);
+        assertTrue(changed.containsAll(List.of(subTask.getId(), epic.getId())),
+                "Новая подзадача меняет список подзадач и статус эпика");
+
+        changed.clear();
+        taskManager.getTaskById(task.getId());
+        assertTrue(changed.isEmpty(), "Просмотр задачу не меняет");
+
+        Task updated = new Task("Задача № 1", "Новое описание", Status.DONE);
+        updated.setId(task.getId());
+        taskManager.updateTask(updated);
+        assertTrue(changed.contains(task.getId()), "Обновление задачи");
+
+        changed.clear();
+        taskManager.deleteAllSubTasks();
+        assertTrue(changed.containsAll(List.of(subTask.getId(), epic.getId())),
+                "Удаление подзадач меняет и эпик");
+    }
+}
@@ -0,0 +1,54 @@
+package metricsTest;
+
+import metrics.Counter;
+import metrics.Histogram;
+import metrics.MetricsRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+    @Test // Перцентили не меньше точного значения и отличаются от него не больше чем на 1/8
+    void testHistogramPercentiles() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(1000, histogram.getCount(), "Учтены все записи");
+        assertEquals(500_500_000L, histogram.getSum(), "Сумма записей точная");
+        assertEquals(1_000_000L, histogram.getMax());
+
+        long p50 = histogram.percentile(0.5);
+        assertTrue(p50 >= 500_000 && p50 <= 500_000 * 9 / 8, "Медиана в пределах точности корзины: " + p50);
+        long p99 = histogram.percentile(0.99);
+        assertTrue(p99 >= 990_000 && p99 <= 1_000_000, "p99 не больше максимума: " + p99);
+        assertEquals(1_000_000L, histogram.percentile(1), "Квантиль 1 - максимум");
+        assertEquals(0, new Histogram().percentile(0.5), "Пустая гистограмма даёт 0");
+        assertThrows(IllegalArgumentException.class, () -> histogram.percentile(0));
+    }
+
+    @Test // Выдача в формате Prometheus: HELP, TYPE, метки и квантили
+    void testScrape() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter counter = registry.counter("requests_total", "Запросы", "path", "/tasks");
+        counter.add(3);
+        assertSame(counter, registry.counter("requests_total", "Запросы", "path", "/tasks"),
+                "Те же имя и метки дают тот же счётчик");
+        registry.gauge("queue_size", "Очередь", () -> 7);
+        registry.histogram("latency_seconds", "Задержка", "op", "add").record(2_000_000_000L);
+
+        String text = registry.scrape();
+        assertTrue(text.contains("# HELP requests_total Запросы\n# TYPE requests_total counter\n"), text);
+        assertTrue(text.contains("requests_total{path=\"/tasks\"} 3\n"), text);
+        assertTrue(text.contains("queue_size 7\n"), text);
+        assertTrue(text.contains("# TYPE latency_seconds summary\n"), text);
+        assertTrue(text.contains("latency_seconds{op=\"add\",quantile=\"0.99\"} "), text);
+        assertTrue(text.contains("latency_seconds_sum{op=\"add\"} 2.0\n"), text);
+        assertTrue(text.contains("latency_seconds_count{op=\"add\"} 1\n"), text);
+
+        assertThrows(IllegalArgumentException.class, () -> registry.histogram("requests_total", "Запросы"),
+                "Имя уже занято счётчиком");
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("bad name", "Ошибка"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("odd_labels", "Ошибка", "path"));
+    }
+}